@@ -0,0 +1,42 @@
+package com.example.demo;
+
+import com.example.demo.domain.authority.Authority;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.userProfile.UserProfile;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+public final class BenchmarkFixtures {
+
+  public static final String JWT_SECRET = "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+  // BCrypt hash of "1234" with strength 10, as stored by data.sql
+  public static final String PASSWORD_HASH = "$2a$10$TM3PAYG3b.H98cbRrHqWa.BM7YyCqV92e/kUTBfj85AjayxGZU7d6";
+
+  private BenchmarkFixtures() {
+  }
+
+  public static Role adminRole() {
+    return new Role(UUID.randomUUID(), "ADMIN", Set.of(new Authority(UUID.randomUUID(), "USER_READ"),
+        new Authority(UUID.randomUUID(), "USER_MODIFY"), new Authority(UUID.randomUUID(), "USER_DEACTIVATE"),
+        new Authority(UUID.randomUUID(), "USER_CREATE")));
+  }
+
+  public static User user(int n, Set<Role> roles) {
+    User user = new User(UUID.randomUUID(), "FirstName" + n, "LastName" + n, "user" + n + "@example.com",
+        PASSWORD_HASH, roles, null);
+    UserProfile profile = new UserProfile();
+    profile.setId(UUID.randomUUID());
+    profile.setAddress("Test Street " + n);
+    profile.setBirthDate(LocalDate.of(1960 + n % 45, 1 + n % 12, 1 + n % 28));
+    profile.setProfileImageUrl("https://example.com/avatar.png");
+    profile.setUser(user);
+    user.setProfile(profile);
+    return user;
+  }
+
+  public static User sampleUser() {
+    return user(7, Set.of(adminRole()));
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.core.security;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.core.security.helpers.PrincipalCacheProperties;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserDetailsImpl;
+import com.example.demo.domain.user.UserService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// Compares the per-request cost of JWTAuthorizationFilter in its authentication modes.
+// The user lookup is an in-memory stub, so "database" shows the overhead without any JDBC latency.
+// metrics=prometheus records the filter timer with a percentile histogram as in production,
+// the difference to metrics=none is the instrumentation overhead on the hot path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthorizationBenchmark {
+
+  @Param({"database", "cached", "stateless"})
+  public String mode;
+
+  @Param({"none", "prometheus"})
+  public String metrics;
+
+  private JWTAuthorizationFilter filter;
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+  private final FilterChain chain = (req, res) -> {
+  };
+
+  static UserService stubUserService(User user) {
+    return (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(), new Class<?>[] {UserService.class},
+        (proxy, method, args) -> {
+          if ("loadUserById".equals(method.getName())) {
+            return new UserDetailsImpl(user);
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    User user = BenchmarkFixtures.sampleUser();
+    JwtProperties jwtProperties = new JwtProperties(100_000_000L, "uk223", BenchmarkFixtures.JWT_SECRET, 30,
+        "stateless".equals(mode), 30_000L);
+    JwtCodec jwtCodec = new JwtCodec(jwtProperties);
+    PrincipalCache principalCache = new PrincipalCache(
+        new PrincipalCacheProperties("cached".equals(mode), 10_000, 300_000));
+    // never refreshed, authorities of the stateless mode are interned on first use
+    RoleSnapshot roleSnapshot = new RoleSnapshot(null);
+    // nothing is revoked, the lookup of the stateless mode is a miss in an empty map
+    RevokedUsers revokedUsers = new RevokedUsers(null, jwtProperties);
+    filter = new JWTAuthorizationFilter(stubUserService(user), jwtCodec, jwtProperties, principalCache, roleSnapshot,
+        revokedUsers, meterRegistry());
+
+    request = new MockHttpServletRequest("GET", "/user/profile");
+    request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtCodec.generate(user.getId(), user.getEmail(),
+        List.of("USER_READ", "USER_MODIFY", "USER_DEACTIVATE", "USER_CREATE")));
+    response = new MockHttpServletResponse();
+  }
+
+  // A composite without registries hands out no-op meters
+  private MeterRegistry meterRegistry() {
+    if (!"prometheus".equals(metrics)) {
+      return new CompositeMeterRegistry();
+    }
+    PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    registry.config().meterFilter(new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        return DistributionStatisticConfig.builder()
+                                          .percentilesHistogram(true)
+                                          .build()
+                                          .merge(config);
+      }
+    });
+    return registry;
+  }
+
+  @Benchmark
+  public Object authorize() throws Exception {
+    // OncePerRequestFilter marks handled requests, a fresh attribute set is needed per invocation
+    request.clearAttributes();
+    filter.doFilter(request, response, chain);
+    Object authentication = SecurityContextHolder.getContext()
+                                                 .getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+}
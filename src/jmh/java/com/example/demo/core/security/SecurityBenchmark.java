@@ -0,0 +1,88 @@
+package com.example.demo.core.security;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// JWT generation/parsing, authority resolution and BCrypt verification as done per login or request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+  private JwtCodec jwtCodec;
+  private User user;
+  private List<String> authorityNames;
+  private String token;
+  private UserDetailsImpl snapshotPrincipal;
+  private RoleSnapshot roleSnapshot;
+  private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+  @Setup
+  public void setUp() {
+    jwtCodec = new JwtCodec(new JwtProperties(100_000_000L, "uk223", BenchmarkFixtures.JWT_SECRET, 30, false, 30_000L));
+    user = BenchmarkFixtures.sampleUser();
+    authorityNames = new UserDetailsImpl(user).getAuthorities()
+                                              .stream()
+                                              .map(GrantedAuthority::getAuthority)
+                                              .toList();
+    token = jwtCodec.generate(user.getId(), user.getEmail(), authorityNames);
+    roleSnapshot = new RoleSnapshot(null);
+    snapshotPrincipal = new UserDetailsImpl(user, roleSnapshot.authoritiesOf(user.getRoles()));
+    bCryptPasswordEncoder = new BCryptPasswordEncoder(10);
+  }
+
+  @Benchmark
+  public String jwtGenerate() {
+    return jwtCodec.generate(user.getId(), user.getEmail(), authorityNames);
+  }
+
+  @Benchmark
+  public Claims jwtParse() {
+    return jwtCodec.parse(token);
+  }
+
+  // principal built from the roles without the snapshot, as loaded by the filter on a cache miss
+  @Benchmark
+  public Collection<? extends GrantedAuthority> authoritiesFromRoles() {
+    return new UserDetailsImpl(user).getAuthorities();
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> authoritiesFromSnapshot() {
+    return new UserDetailsImpl(user, roleSnapshot.authoritiesOf(user.getRoles())).getAuthorities();
+  }
+
+  // what every @PreAuthorize check pays on an existing principal
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return snapshotPrincipal.getAuthorities();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean bcryptMatches() {
+    return bCryptPasswordEncoder.matches("1234", BenchmarkFixtures.PASSWORD_HASH);
+  }
+}
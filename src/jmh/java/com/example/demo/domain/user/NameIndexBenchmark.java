@@ -0,0 +1,100 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserNameDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Autocomplete lookups against the in-memory name index. The setup prints the retained heap per user,
+// with 1M users on a 64-bit JVM with compressed oops it is about 380 bytes including the names.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NameIndexBenchmark {
+
+  private static final String[] SYLLABLES = {"an", "ber", "ca", "dor", "el", "fa", "gun", "hei", "is", "jo", "ka",
+      "lin", "mar", "no", "ol", "pe", "qui", "ro", "sa", "ti", "ul", "ve", "wal", "xa", "yo", "zu", "son", "berg",
+      "mann", "m\u00fcl"};
+
+  @Param({"1000000"})
+  public int users;
+
+  private NamePrefixMap names;
+  private final List<UserNameDTO> samples = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    long empty = usedHeap();
+    Random random = new Random(42);
+    List<UserNameDTO> generated = new ArrayList<>(users);
+    for (int i = 0; i < users; i++) {
+      generated.add(new UserNameDTO(UUID.randomUUID(), name(random, 2), name(random, 3)));
+    }
+    samples.addAll(generated.subList(0, 1_000));
+
+    long before = usedHeap();
+    names = new NamePrefixMap();
+    generated.forEach(names::put);
+    long index = usedHeap() - before;
+    generated.clear();
+    long total = usedHeap() - empty;
+    System.out.printf("%nName index: %d bytes per user for the structure, %d including the names%n",
+        index / users, total / users);
+  }
+
+  private static String name(Random random, int syllables) {
+    StringBuilder name = new StringBuilder();
+    for (int i = 0; i < syllables; i++) {
+      name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+    return name.toString();
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private UserNameDTO sample() {
+    return samples.get(ThreadLocalRandom.current().nextInt(samples.size()));
+  }
+
+  // the first keystrokes match the most keys
+  @Benchmark
+  public List<UserNameDTO> twoLetters() {
+    return names.search(sample().lastName().substring(0, 2), 10);
+  }
+
+  @Benchmark
+  public List<UserNameDTO> fourLetters() {
+    return names.search(sample().firstName().substring(0, 4), 10);
+  }
+
+  @Benchmark
+  public List<UserNameDTO> fullName() {
+    UserNameDTO name = sample();
+    return names.search(name.firstName() + " " + name.lastName().substring(0, 3), 10);
+  }
+}
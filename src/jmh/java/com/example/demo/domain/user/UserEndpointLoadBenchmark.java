@@ -0,0 +1,143 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.DemoApplication;
+import com.example.demo.core.security.JwtCodec;
+import com.example.demo.domain.role.RoleSnapshot;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// HTTP load against a running instance with platform or virtual request threads.
+// Throughput comes from Mode.Throughput, p99 from the Mode.SampleTime percentiles.
+// Runs on H2, whose internal locking pins virtual threads, compare against Postgres before drawing conclusions.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(256)
+@Fork(1)
+public class UserEndpointLoadBenchmark {
+
+  private static final int USERS = 10_000;
+  private static final UUID ADMIN_ROLE_ID = UUID.randomUUID();
+  private static final UUID READ_AUTHORITY_ID = UUID.randomUUID();
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient client;
+  private String baseUrl;
+  private String authorization;
+  private final List<UUID> userIds = new ArrayList<>(USERS);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(DemoApplication.class).properties(
+        "server.port=0",
+        "threads.virtual.enabled=" + "virtual".equals(threads),
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "jwt.secret=" + BenchmarkFixtures.JWT_SECRET,
+        "logging.level.root=warn").run();
+    UUID adminId = seed(context.getBean(JdbcTemplate.class));
+    context.getBean(RoleSnapshot.class).refresh();
+
+    authorization = "Bearer " + context.getBean(JwtCodec.class)
+                                       .generate(adminId, "admin@example.com", List.of("USER_READ"));
+    baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    client = HttpClient.newBuilder()
+                       .version(HttpClient.Version.HTTP_1_1)
+                       .build();
+  }
+
+  private UUID seed(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update("INSERT INTO authority (id, name) VALUES (?, 'USER_READ')", READ_AUTHORITY_ID);
+    jdbcTemplate.update("INSERT INTO role (id, name) VALUES (?, 'ADMIN')", ADMIN_ROLE_ID);
+    jdbcTemplate.update("INSERT INTO role_authority (role_id, authority_id) VALUES (?, ?)", ADMIN_ROLE_ID,
+        READ_AUTHORITY_ID);
+
+    List<Object[]> userRows = new ArrayList<>(USERS);
+    List<Object[]> profileRows = new ArrayList<>(USERS);
+    for (int n = 0; n < USERS; n++) {
+      UUID id = UUID.randomUUID();
+      userIds.add(id);
+      userRows.add(new Object[] {id, "user" + n + "@example.com", "FirstName" + n, "LastName" + n, (long) n,
+          Timestamp.from(Instant.now()), BenchmarkFixtures.PASSWORD_HASH});
+      profileRows.add(new Object[] {UUID.randomUUID(), id, "Test Street " + n,
+          Date.valueOf(LocalDate.now().minusYears(13 + n % 60).minusDays(n % 365)), null});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO users (id, email, first_name, last_name, last_name_number, updated_at, "
+        + "password) VALUES (?, ?, ?, ?, ?, ?, ?)", userRows);
+    jdbcTemplate.batchUpdate("INSERT INTO user_profiles (id, user_id, address, birth_date, profile_image_url) "
+        + "VALUES (?, ?, ?, ?, ?)", profileRows);
+
+    UUID adminId = userIds.get(0);
+    jdbcTemplate.update("INSERT INTO users_role (users_id, role_id) VALUES (?, ?)", adminId, ADMIN_ROLE_ID);
+    return adminId;
+  }
+
+  @Benchmark
+  public int retrieveById() throws Exception {
+    UUID id = userIds.get(ThreadLocalRandom.current().nextInt(USERS));
+    return get("/user/" + id);
+  }
+
+  @Benchmark
+  public int adminSearch() throws Exception {
+    return get("/user/admin/search?minAge=30&maxAge=40&page=" + ThreadLocalRandom.current().nextInt(50));
+  }
+
+  private int get(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                     .header(HttpHeaders.AUTHORIZATION, authorization)
+                                     .GET()
+                                     .build();
+    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(path + " answered " + response.statusCode());
+    }
+    return response.statusCode();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+}
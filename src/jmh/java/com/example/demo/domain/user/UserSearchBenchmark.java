@@ -0,0 +1,132 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.DemoApplication;
+import com.example.demo.domain.user.dto.UserSummaryDTO;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Admin search against an in-memory H2 database seeded with the given number of users.
+// Absolute numbers differ from Postgres, the benchmark is meant to compare commits.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserSearchBenchmark {
+
+  private static final int INSERT_BATCH = 10_000;
+
+  @Param({"10000", "100000", "1000000"})
+  public int users;
+
+  // Entity searches through the UserDirectory snapshot instead of the database
+  @Param({"false", "true"})
+  public boolean directory;
+
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private final Pageable firstPage = PageRequest.of(0, 10,
+      Sort.by(Sort.Direction.ASC, "lastNameNumber", "lastName", "firstName"));
+  private final Pageable deepPage = PageRequest.of(500, 10,
+      Sort.by(Sort.Direction.ASC, "lastNameNumber", "lastName", "firstName"));
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(DemoApplication.class).properties(
+        "server.port=0",
+        "spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "users.directory.enabled=" + directory,
+        "logging.level.root=warn").run();
+    seed(context.getBean(JdbcTemplate.class));
+    context.getBean(UserDirectory.class).rebuild();
+    userService = context.getBean(UserService.class);
+  }
+
+  private void seed(JdbcTemplate jdbcTemplate) {
+    for (int start = 0; start < users; start += INSERT_BATCH) {
+      List<Object[]> userRows = new ArrayList<>(INSERT_BATCH);
+      List<Object[]> profileRows = new ArrayList<>(INSERT_BATCH);
+      for (int n = start; n < Math.min(start + INSERT_BATCH, users); n++) {
+        UUID id = UUID.randomUUID();
+        userRows.add(new Object[] {id, "user" + n + "@example.com", "FirstName" + n, "LastName" + n, (long) n,
+            Timestamp.from(Instant.now()), BenchmarkFixtures.PASSWORD_HASH});
+        profileRows.add(new Object[] {UUID.randomUUID(), id, "Test Street " + n,
+            Date.valueOf(LocalDate.now().minusYears(13 + n % 60).minusDays(n % 365)), null});
+      }
+      jdbcTemplate.batchUpdate("INSERT INTO users (id, email, first_name, last_name, last_name_number, updated_at, "
+          + "password) VALUES (?, ?, ?, ?, ?, ?, ?)", userRows);
+      jdbcTemplate.batchUpdate("INSERT INTO user_profiles (id, user_id, address, birth_date, profile_image_url) "
+          + "VALUES (?, ?, ?, ?, ?)", profileRows);
+    }
+  }
+
+  @Benchmark
+  public Page<User> firstPageUnfiltered() {
+    return userService.getFilteredPaginatedAndSortedUsers(null, null, null, null, firstPage);
+  }
+
+  @Benchmark
+  public Page<User> deepPageUnfiltered() {
+    return userService.getFilteredPaginatedAndSortedUsers(null, null, null, null, deepPage);
+  }
+
+  @Benchmark
+  public Page<User> lastNamePrefix() {
+    return userService.getFilteredPaginatedAndSortedUsers(null, null, null, "lastname12", firstPage);
+  }
+
+  @Benchmark
+  public Page<User> ageRange() {
+    return userService.getFilteredPaginatedAndSortedUsers(30, 40, null, null, firstPage);
+  }
+
+  // Same searches through the column-only projection used by the endpoint
+  @Benchmark
+  public Page<UserSummaryDTO> firstPageUnfilteredSummaries() {
+    return userService.getFilteredUserSummaries(null, null, null, null, firstPage);
+  }
+
+  @Benchmark
+  public Page<UserSummaryDTO> ageRangeSummaries() {
+    return userService.getFilteredUserSummaries(30, 40, null, null, firstPage);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.domain.user.dto;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.user.User;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+  @Param({"10", "1000"})
+  public int size;
+
+  private final UserMapper userMapper = new UserMapperImpl();
+  private User user;
+  private List<User> users;
+
+  @Setup
+  public void setUp() {
+    Set<Role> roles = Set.of(BenchmarkFixtures.adminRole());
+    user = BenchmarkFixtures.user(1, roles);
+    users = IntStream.range(0, size)
+                     .mapToObj(n -> BenchmarkFixtures.user(n, roles))
+                     .toList();
+  }
+
+  @Benchmark
+  public UserDTO toDTO() {
+    return userMapper.toDTO(user);
+  }
+
+  @Benchmark
+  public List<UserDTO> toDTOs() {
+    return userMapper.toDTOs(users);
+  }
+}
@@ -1,10 +1,17 @@
 package com.example.demo;
 
+import com.example.demo.core.generic.AbstractRepositoryImpl;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.web.servlet.error.ErrorMvcAutoConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = ErrorMvcAutoConfiguration.class)
+@EnableJpaRepositories(repositoryBaseClass = AbstractRepositoryImpl.class)
+@EnableScheduling
+@EnableAsync
 public class DemoApplication {
 
   public static void main(String[] args) {
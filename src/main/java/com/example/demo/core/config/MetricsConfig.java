@@ -0,0 +1,17 @@
+package com.example.demo.core.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Enables @Timed on beans. Endpoints (http.server.requests), repositories (spring.data.repository.invocations),
+// the Hikari pool and the JVM are instrumented by Boot itself, histograms are switched on in application.properties.
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+}
@@ -1,5 +1,9 @@
 package com.example.demo.core.exception;
 
+import com.example.demo.core.security.hashing.PasswordHashingRejectedException;
+import com.example.demo.domain.user.EmailAlreadyInUseException;
+import com.example.demo.domain.userProfile.image.ProfileImageTooLargeException;
+import com.example.demo.domain.userProfile.image.UnsupportedImageTypeException;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -7,10 +11,13 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,6 +25,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 @RestControllerAdvice
 @AllArgsConstructor
@@ -95,6 +103,69 @@ public class CustomGlobalExceptionHandler {
             .build();
   }
 
+  // @PreAuthorize denials, otherwise the RuntimeException handler would answer them with 400
+  @ExceptionHandler(AccessDeniedException.class)
+  @ResponseStatus(HttpStatus.FORBIDDEN)
+  public ResponseError handleAccessDenied(AccessDeniedException e) {
+    Map<String, String> errors = new HashMap<>();
+    errors.put("authorization", "Access denied.");
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
+  @ExceptionHandler(EmailAlreadyInUseException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseError handleEmailAlreadyInUse(EmailAlreadyInUseException e) {
+    Map<String, String> errors = new HashMap<>();
+    errors.put("email", "This email address is already in use.");
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
+  // If-Match mismatches and concurrent writes detected by the @Version columns
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+  public ResponseError handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+    Map<String, String> errors = new HashMap<>();
+    errors.put("version", "The resource has been modified in the meantime, reload it and try again.");
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
+  @ExceptionHandler(PasswordHashingRejectedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ResponseError handlePasswordHashingRejected(PasswordHashingRejectedException e, HttpServletResponse response) {
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    Map<String, String> errors = new HashMap<>();
+    errors.put("server", "Too many concurrent password operations, please retry.");
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
+  @ExceptionHandler(ProfileImageTooLargeException.class)
+  @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+  public ResponseError handleProfileImageTooLarge(ProfileImageTooLargeException e) {
+    Map<String, String> errors = new HashMap<>();
+    errors.put("image", e.getMessage());
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
+  @ExceptionHandler(UnsupportedImageTypeException.class)
+  @ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+  public ResponseError handleUnsupportedImageType(UnsupportedImageTypeException e) {
+    Map<String, String> errors = new HashMap<>();
+    errors.put("image", e.getMessage());
+    return new ResponseError().setTimeStamp(LocalDate.now())
+                              .setErrors(errors)
+                              .build();
+  }
+
   @ExceptionHandler({RuntimeException.class})
   @ResponseStatus(value = HttpStatus.BAD_REQUEST)
   public ResponseError handleRuntimeException(Throwable e) {
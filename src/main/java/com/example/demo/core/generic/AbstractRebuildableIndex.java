@@ -0,0 +1,63 @@
+package com.example.demo.core.generic;
+
+import com.example.demo.core.persistence.AfterCommit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// In-memory structure derived from the database: built from a full read, patched after commit in between.
+// Changes that commit while a rebuild is reading may be missing from what it read, they are recorded and
+// replayed onto the new structure before it replaces the old one, so the newest state wins.
+public abstract class AbstractRebuildableIndex<S> {
+
+  private final AtomicReference<S> current = new AtomicReference<>();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  // guarded by this
+  private List<Consumer<S>> pending;
+
+  // null until the first rebuild has finished
+  protected S current() {
+    return current.get();
+  }
+
+  // Returns the new structure, or null if another rebuild is already running
+  protected S rebuild(Supplier<S> loader) {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return null;
+    }
+    try {
+      synchronized (this) {
+        pending = new ArrayList<>();
+      }
+      S next = loader.get();
+      synchronized (this) {
+        pending.forEach(change -> change.accept(next));
+        current.set(next);
+      }
+      return next;
+    }
+    finally {
+      synchronized (this) {
+        pending = null;
+      }
+      rebuilding.set(false);
+    }
+  }
+
+  protected void afterCommit(Consumer<S> change) {
+    AfterCommit.run(() -> apply(change));
+  }
+
+  private synchronized void apply(Consumer<S> change) {
+    S structure = current.get();
+    if (structure != null) {
+      change.accept(structure);
+    }
+    if (pending != null) {
+      pending.add(change);
+    }
+  }
+}
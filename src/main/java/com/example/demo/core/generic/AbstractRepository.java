@@ -1,7 +1,16 @@
 package com.example.demo.core.generic;
 
+import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
 
-public interface AbstractRepository<T extends AbstractEntity> extends JpaRepository<T, UUID> {
+@NoRepositoryBean
+public interface AbstractRepository<T extends AbstractEntity> extends JpaRepository<T, UUID>, JpaSpecificationExecutor<T> {
+
+  // Returns at most limit rows without issuing a count query, used for keyset pagination
+  List<T> findAll(Specification<T> spec, Sort sort, int limit);
 }
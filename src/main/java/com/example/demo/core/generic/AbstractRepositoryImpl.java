@@ -0,0 +1,24 @@
+package com.example.demo.core.generic;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+// Base class of all repositories, registered through @EnableJpaRepositories(repositoryBaseClass = ...)
+public class AbstractRepositoryImpl<T extends AbstractEntity> extends SimpleJpaRepository<T, UUID>
+    implements AbstractRepository<T> {
+
+  public AbstractRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+    super(entityInformation, entityManager);
+  }
+
+  @Override
+  public List<T> findAll(Specification<T> spec, Sort sort, int limit) {
+    return getQuery(spec, sort).setMaxResults(limit)
+                               .getResultList();
+  }
+}
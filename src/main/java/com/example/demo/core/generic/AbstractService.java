@@ -17,6 +17,8 @@ public interface AbstractService<T extends AbstractEntity> {
 
   List<T> findAll(Pageable pageable);
 
+  KeysetPage<T> findAll(KeysetRequest request);
+
   T findById(UUID id);
 
   boolean existsById(UUID id);
@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 @AllArgsConstructor@NoArgsConstructor
 public abstract class AbstractServiceImpl<T extends AbstractEntity> implements AbstractService<T> {
@@ -49,6 +50,27 @@ public abstract class AbstractServiceImpl<T extends AbstractEntity> implements A
     return pagedResult.hasContent() ? pagedResult.getContent() : new ArrayList<>();
   }
 
+  @Override
+  public KeysetPage<T> findAll(KeysetRequest request) {
+    return findAll(null, request);
+  }
+
+  // Seeks past the cursor instead of skipping rows, fetching one extra row to detect the next page
+  protected KeysetPage<T> findAll(Specification<T> filter, KeysetRequest request) {
+    Specification<T> spec = Specification.where(filter);
+    if (!request.isFirstPage()) {
+      spec = spec.and(KeysetCursor.decode(request.cursor(), request.sortAttributes())
+                                  .after());
+    }
+    List<T> rows = repository.findAll(spec, KeysetCursor.sort(request.sortAttributes()), request.size() + 1);
+    boolean hasNext = rows.size() > request.size();
+    List<T> content = hasNext ? rows.subList(0, request.size()) : rows;
+    String next = hasNext ? KeysetCursor.of(request.sortAttributes(), content.get(content.size() - 1))
+                                        .encode() : null;
+    Long total = request.withTotal() ? repository.count(filter) : null;
+    return new KeysetPage<>(content, next, total);
+  }
+
   @Override
   public T findById(UUID id) {
     return repository.findById(id).orElseThrow(NoSuchElementException::new);
@@ -0,0 +1,110 @@
+package com.example.demo.core.generic;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+// Opaque cursor holding the sort attributes, their values and the id of the last row of a page.
+// One line per part, the values are URL encoded and prefixed with '=' to tell them from null.
+public record KeysetCursor(List<String> sortAttributes, List<String> sortValues, UUID id) {
+
+  private static final String SEPARATOR = "\n";
+  private static final String VALUE_PREFIX = "=";
+
+  public static <T extends AbstractEntity> KeysetCursor of(List<String> sortAttributes, T entity) {
+    BeanWrapperImpl wrapper = new BeanWrapperImpl(entity);
+    List<String> values = new ArrayList<>(sortAttributes.size());
+    for (String sortAttribute : sortAttributes) {
+      Object value = wrapper.getPropertyValue(sortAttribute);
+      values.add(value == null ? null : value.toString());
+    }
+    return new KeysetCursor(sortAttributes, values, entity.getId());
+  }
+
+  public static KeysetCursor decode(String cursor, List<String> expectedSortAttributes) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      List<String> lines = Arrays.asList(decoded.split(SEPARATOR, -1));
+      if (lines.size() != expectedSortAttributes.size() + 2
+          || !lines.get(0).equals(String.join(",", expectedSortAttributes))) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      List<String> values = new ArrayList<>(expectedSortAttributes.size());
+      for (String line : lines.subList(1, lines.size() - 1)) {
+        values.add(line.isEmpty() ? null : decodeValue(line));
+      }
+      return new KeysetCursor(expectedSortAttributes, values, UUID.fromString(lines.get(lines.size() - 1)));
+    }
+    catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  public String encode() {
+    StringBuilder raw = new StringBuilder(String.join(",", sortAttributes));
+    for (String value : sortValues) {
+      raw.append(SEPARATOR);
+      if (value != null) {
+        raw.append(VALUE_PREFIX).append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+      }
+    }
+    raw.append(SEPARATOR).append(id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Sort sort(List<String> sortAttributes) {
+    List<String> properties = new ArrayList<>(sortAttributes);
+    properties.add("id");
+    return Sort.by(Sort.Direction.ASC, properties.toArray(String[]::new));
+  }
+
+  // (a, b, ..., id) > (va, vb, ..., id) spelled out column by column. Nulls sort last, see
+  // hibernate.order_by.default_null_ordering, so a null value only ties with other nulls.
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public <T> Specification<T> after() {
+    return (root, query, cb) -> {
+      Path<Comparable> idPath = root.get("id");
+      Predicate after = cb.greaterThan(idPath, id);
+      for (int i = sortAttributes.size() - 1; i >= 0; i--) {
+        Path<Comparable> sortPath = root.get(sortAttributes.get(i));
+        String sortValue = sortValues.get(i);
+        if (sortValue == null) {
+          after = cb.and(cb.isNull(sortPath), after);
+        }
+        else {
+          Comparable value = convert(sortValue, sortPath.getJavaType());
+          after = cb.or(cb.greaterThan(sortPath, value), cb.isNull(sortPath),
+              cb.and(cb.equal(sortPath, value), after));
+        }
+      }
+      return after;
+    };
+  }
+
+  private static String decodeValue(String line) {
+    if (!line.startsWith(VALUE_PREFIX)) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return URLDecoder.decode(line.substring(VALUE_PREFIX.length()), StandardCharsets.UTF_8);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Comparable convert(String value, Class<?> type) {
+    if (type == LocalDate.class) {
+      return LocalDate.parse(value);
+    }
+    return (Comparable) DefaultConversionService.getSharedInstance().convert(value, type);
+  }
+}
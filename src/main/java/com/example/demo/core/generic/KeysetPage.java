@@ -0,0 +1,18 @@
+package com.example.demo.core.generic;
+
+import java.util.List;
+import java.util.function.Function;
+
+// next is null on the last page, totalElements is null when the count was skipped
+public record KeysetPage<T>(List<T> content, String next, Long totalElements) {
+
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  public <R> KeysetPage<R> map(Function<? super T, ? extends R> converter) {
+    return new KeysetPage<>(content.stream()
+                                   .<R>map(converter)
+                                   .toList(), next, totalElements);
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.core.generic;
+
+import java.util.List;
+
+// Requests the page following the given cursor, ordered by the sort attributes and the id as tiebreaker
+// No sort attributes order by id only, a null or blank cursor requests the first page
+public record KeysetRequest(List<String> sortAttributes, String cursor, int size, boolean withTotal) {
+
+  public static final int DEFAULT_SIZE = 20;
+  public static final int MAX_SIZE = 100;
+
+  public KeysetRequest {
+    sortAttributes = sortAttributes == null ? List.of() : List.copyOf(sortAttributes);
+    if (size < 1) {
+      size = DEFAULT_SIZE;
+    }
+    size = Math.min(size, MAX_SIZE);
+  }
+
+  public static KeysetRequest of(List<String> sortAttributes, String cursor, int size, boolean withTotal) {
+    return new KeysetRequest(sortAttributes, cursor, size, withTotal);
+  }
+
+  public boolean isFirstPage() {
+    return cursor == null || cursor.isBlank();
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.core.persistence;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+// Counts the SQL statements of each request, including the ones of the security filters, and records them
+// per endpoint. Requests above the threshold are logged, which is where N+1 regressions show up first.
+@Log4j2
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+  public static final String COUNT_HEADER = "X-SQL-Count";
+  public static final String TIME_HEADER = "X-SQL-Time";
+
+  private final SqlStatementProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  public SqlStatementFilter(SqlStatementProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !properties.isEnabled();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    // headers have to be set before the body is written, so the body is held back until the counts are known
+    ContentCachingResponseWrapper buffered = properties.isHeaders() ? new ContentCachingResponseWrapper(response) : null;
+    SqlStatementStats stats = SqlStatementStats.start();
+    try {
+      filterChain.doFilter(request, buffered != null ? buffered : response);
+    }
+    finally {
+      SqlStatementStats.stop();
+      record(request, stats);
+      if (buffered != null) {
+        buffered.setHeader(COUNT_HEADER, Integer.toString(stats.getCount()));
+        buffered.setHeader(TIME_HEADER, Long.toString(stats.getMillis()));
+        buffered.copyBodyToResponse();
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, SqlStatementStats stats) {
+    // the route template keeps the tag cardinality bounded, unmatched requests share one tag
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+    DistributionSummary.builder("http.server.sql.statements")
+                       .tag("method", request.getMethod())
+                       .tag("uri", uri)
+                       .register(meterRegistry)
+                       .record(stats.getCount());
+    Timer.builder("http.server.sql.time")
+         .tag("method", request.getMethod())
+         .tag("uri", uri)
+         .register(meterRegistry)
+         .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    if (stats.getCount() > properties.getWarnThreshold()) {
+      log.warn("{} {} ran {} SQL statements in {} ms (threshold {})", request.getMethod(), request.getRequestURI(),
+          stats.getCount(), stats.getMillis(), properties.getWarnThreshold());
+    }
+  }
+}
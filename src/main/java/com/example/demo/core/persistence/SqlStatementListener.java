@@ -0,0 +1,46 @@
+package com.example.demo.core.persistence;
+
+import org.hibernate.SessionEventListener;
+
+// Registered for every session through hibernate.session.events.auto, so Hibernate creates one instance
+// per session. Outside of a counted request there are no stats and every callback is a no-op.
+public class SqlStatementListener implements SessionEventListener {
+
+  private long executionStart;
+
+  // one prepare per statement, batched inserts and updates count once per batch
+  @Override
+  public void jdbcPrepareStatementStart() {
+    SqlStatementStats stats = SqlStatementStats.current();
+    if (stats != null) {
+      stats.statement();
+    }
+  }
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    executionStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    executed();
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    executionStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    executed();
+  }
+
+  private void executed() {
+    SqlStatementStats stats = SqlStatementStats.current();
+    if (stats != null) {
+      stats.executed(System.nanoTime() - executionStart);
+    }
+  }
+}
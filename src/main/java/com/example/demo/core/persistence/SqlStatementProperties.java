@@ -0,0 +1,24 @@
+package com.example.demo.core.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("sql.statements")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SqlStatementProperties {
+
+  private boolean enabled = true;
+  // X-SQL-Count/X-SQL-Time, buffers every response body until the request is done
+  private boolean headers = false;
+  // requests with more statements are logged as a warning
+  private int warnThreshold = 10;
+
+}
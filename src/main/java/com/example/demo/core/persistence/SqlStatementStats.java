@@ -0,0 +1,50 @@
+package com.example.demo.core.persistence;
+
+import java.util.concurrent.TimeUnit;
+
+// Statements and JDBC time of the current request, filled in by SqlStatementListener.
+// Only statements issued through Hibernate are seen, JdbcTemplate work (bulk inserts, audit writer) is not counted.
+public final class SqlStatementStats {
+
+  private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+  private int count;
+  private long nanos;
+
+  private SqlStatementStats() {
+  }
+
+  public static SqlStatementStats start() {
+    SqlStatementStats stats = new SqlStatementStats();
+    CURRENT.set(stats);
+    return stats;
+  }
+
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  static SqlStatementStats current() {
+    return CURRENT.get();
+  }
+
+  void statement() {
+    count++;
+  }
+
+  void executed(long elapsedNanos) {
+    nanos += elapsedNanos;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public long getNanos() {
+    return nanos;
+  }
+
+  public long getMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+}
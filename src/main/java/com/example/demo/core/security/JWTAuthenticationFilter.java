@@ -1,16 +1,16 @@
 package com.example.demo.core.security;
 
+import com.example.demo.core.security.hashing.PasswordHashingRejectedException;
 import com.example.demo.core.security.helpers.AuthorizationSchemas;
 import com.example.demo.core.security.helpers.Credentials;
-import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.core.security.throttle.LoginThrottle;
 import com.example.demo.domain.user.UserDetailsImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
-import java.util.Date;
-import java.util.Map;
+import java.util.List;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,6 +22,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.AbstractAuthenticationProcessingFilter;
 import org.springframework.security.web.util.matcher.RequestMatcher;
@@ -29,42 +30,73 @@ import org.springframework.security.web.util.matcher.RequestMatcher;
 @Log4j2
 public class JWTAuthenticationFilter extends AbstractAuthenticationProcessingFilter {
 
-  private final JwtProperties jwtProperties;
+  private static final ObjectReader CREDENTIALS_READER = new ObjectMapper().readerFor(Credentials.class);
+
+  private final JwtCodec jwtCodec;
+  private final LoginThrottle loginThrottle;
+  private final Timer timer;
 
   public JWTAuthenticationFilter(RequestMatcher requestMatcher, AuthenticationManager authenticationManager,
-                                 JwtProperties jwtProperties) {
+                                 JwtCodec jwtCodec, LoginThrottle loginThrottle, MeterRegistry meterRegistry) {
     super(requestMatcher, authenticationManager);
-    this.jwtProperties = jwtProperties;
+    this.jwtCodec = jwtCodec;
+    this.loginThrottle = loginThrottle;
+    this.timer = Timer.builder("security.filter")
+                      .tag("filter", "authentication")
+                      .register(meterRegistry);
   }
 
   private String generateToken(Authentication authResult) {
     UserDetailsImpl userDetailsImpl = (UserDetailsImpl) authResult.getPrincipal();
-    byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
 
-    return Jwts.builder()
-               .setClaims(Map.of("sub", userDetailsImpl.user()
-                                                       .getId(), "authorities", userDetailsImpl.getAuthorities()))
-               .setIssuedAt(new Date())
-               .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpirationMillis()))
-               .setIssuer(jwtProperties.getIssuer())
-               .signWith(Keys.hmacShaKeyFor(keyBytes))
-               .compact();
+    List<String> authorities = userDetailsImpl.getAuthorities()
+                                              .stream()
+                                              .map(GrantedAuthority::getAuthority)
+                                              .toList();
+    return jwtCodec.generate(userDetailsImpl.user()
+                                            .getId(), userDetailsImpl.getUsername(), authorities);
   }
 
   @Override
   public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
       throws AuthenticationException {
+    return timer.record(() -> authenticate(request, response));
+  }
+
+  private Authentication authenticate(HttpServletRequest request, HttpServletResponse response) {
+    // the address is checked before the body is even parsed
+    long retryAfter = loginThrottle.tryAcquireAddress(request.getRemoteAddr());
+    if (retryAfter > 0) {
+      return tooManyRequests(response, retryAfter);
+    }
     try {
-      Credentials credentials = new ObjectMapper().readValue(request.getInputStream(), Credentials.class);
+      Credentials credentials = CREDENTIALS_READER.readValue(request.getInputStream());
+      retryAfter = loginThrottle.tryAcquireEmail(credentials.getEmail());
+      if (retryAfter > 0) {
+        return tooManyRequests(response, retryAfter);
+      }
       return getAuthenticationManager().authenticate(
           new UsernamePasswordAuthenticationToken(credentials.getEmail(), credentials.getPassword()));
     }
+    catch (PasswordHashingRejectedException e) {
+      // returning null ends the filter chain with the response written here
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      return null;
+    }
     catch (IOException e) {
       log.error("Exception while Authentication thrown.", e);
       return null;
     }
   }
 
+  // returning null ends the filter chain with the response written here
+  private static Authentication tooManyRequests(HttpServletResponse response, long retryAfterSeconds) {
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    return null;
+  }
+
   @Override
   protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
                                           Authentication authResult) throws IOException {
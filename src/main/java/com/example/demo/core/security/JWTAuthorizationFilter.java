@@ -1,20 +1,26 @@
 package com.example.demo.core.security;
 
+import com.example.demo.core.security.cache.PrincipalCache;
 import com.example.demo.core.security.helpers.AuthorizationSchemas;
 import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.user.User;
 import com.example.demo.domain.user.UserDetailsImpl;
 import com.example.demo.domain.user.UserService;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,40 +28,71 @@ import org.springframework.web.filter.OncePerRequestFilter;
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
   private final UserService userService;
-  private final JwtProperties jwtProperties;
+  private final JwtCodec jwtCodec;
+  private final PrincipalCache principalCache;
+  private final RoleSnapshot roleSnapshot;
+  private final RevokedUsers revokedUsers;
+  private final boolean stateless;
+  private final Timer timer;
 
-  public JWTAuthorizationFilter(UserService userService, JwtProperties jwtProperties) {
+  public JWTAuthorizationFilter(UserService userService, JwtCodec jwtCodec, JwtProperties jwtProperties,
+                                PrincipalCache principalCache, RoleSnapshot roleSnapshot, RevokedUsers revokedUsers,
+                                MeterRegistry meterRegistry) {
     this.userService = userService;
-    this.jwtProperties = jwtProperties;
+    this.jwtCodec = jwtCodec;
+    this.principalCache = principalCache;
+    this.roleSnapshot = roleSnapshot;
+    this.revokedUsers = revokedUsers;
+    this.stateless = jwtProperties.isStateless();
+    this.timer = Timer.builder("security.filter")
+                      .tag("filter", "authorization")
+                      .tag("mode", stateless ? "stateless" : "database")
+                      .register(meterRegistry);
   }
 
-  private String resolveToken(String token) {
+  private Claims resolveToken(String token) {
     if (token != null && token.startsWith(AuthorizationSchemas.BEARER.toString())) {
-      byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-      return Jwts.parserBuilder()
-                 .setSigningKey(Keys.hmacShaKeyFor(keyBytes))
-                 .build()
-                 .parseClaimsJws(token.replace(AuthorizationSchemas.BEARER + " ", ""))
-                 .getBody()
-                 .getSubject();
+      return jwtCodec.parse(token.replace(AuthorizationSchemas.BEARER + " ", ""));
     } else {
       return null;
     }
   }
 
+  private Authentication loadAuthentication(Claims claims) {
+    UserDetails userDetails = principalCache.get(UUID.fromString(claims.getSubject()), userService::loadUserById);
+    if (!userDetails.isEnabled()) {
+      throw new DisabledException("User " + claims.getSubject() + " is deactivated");
+    }
+    return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+  }
+
+  // The principal only carries id and email, roles are not loaded in stateless mode. Only the revocation
+  // list tells about deleted and deactivated users.
+  private Authentication claimsAuthentication(Claims claims) {
+    UUID userId = UUID.fromString(claims.getSubject());
+    if (revokedUsers.isRevoked(userId)) {
+      throw new DisabledException("User " + userId + " is deleted or deactivated");
+    }
+    User user = new User().setEmail(claims.get(JwtCodec.EMAIL_CLAIM, String.class));
+    user.setId(userId);
+    UserDetailsImpl userDetails = new UserDetailsImpl(user, roleSnapshot.authoritiesOf(JwtCodec.authorities(claims)));
+    return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+  }
+
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
+    // only the authentication itself is timed, not the rest of the chain
+    long start = System.nanoTime();
     try {
-      String authToken = request.getHeader(HttpHeaders.AUTHORIZATION);
-      UserDetails userDetails = new UserDetailsImpl(userService.findById(UUID.fromString(resolveToken(authToken))));
+      Claims claims = resolveToken(request.getHeader(HttpHeaders.AUTHORIZATION));
       SecurityContextHolder.getContext()
-                           .setAuthentication(new UsernamePasswordAuthenticationToken(userDetails, null,
-                               userDetails.getAuthorities()));
+                           .setAuthentication(stateless ? claimsAuthentication(claims) : loadAuthentication(claims));
     }
     catch (RuntimeException e) {
       SecurityContextHolder.clearContext();
     }
+    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     filterChain.doFilter(request, response);
   }
 }
@@ -0,0 +1,64 @@
+package com.example.demo.core.security;
+
+import com.example.demo.core.security.helpers.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+// Signing key and parser are derived once from the configured secret and shared by both JWT filters
+@Component
+public class JwtCodec {
+
+  public static final String AUTHORITIES_CLAIM = "authorities";
+  public static final String EMAIL_CLAIM = "email";
+
+  private final JwtProperties jwtProperties;
+  private final Key key;
+  private final JwtParser parser;
+
+  public JwtCodec(JwtProperties jwtProperties) {
+    this.jwtProperties = jwtProperties;
+    this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret()));
+    this.parser = Jwts.parserBuilder()
+                      .setSigningKey(key)
+                      .setAllowedClockSkewSeconds(jwtProperties.getAllowedClockSkewSeconds())
+                      .build();
+  }
+
+  public String generate(UUID subject, String email, Collection<String> authorities) {
+    long now = System.currentTimeMillis();
+    return Jwts.builder()
+               .setClaims(Map.of(EMAIL_CLAIM, email, AUTHORITIES_CLAIM, authorities))
+               .setSubject(subject.toString())
+               .setIssuedAt(new Date(now))
+               .setExpiration(new Date(now + jwtProperties.getExpirationMillis()))
+               .setIssuer(jwtProperties.getIssuer())
+               .signWith(key)
+               .compact();
+  }
+
+  public Claims parse(String token) {
+    return parser.parseClaimsJws(token)
+                 .getBody();
+  }
+
+  // Accepts plain names as well as {"authority": name} objects written by older tokens
+  public static List<String> authorities(Claims claims) {
+    Object value = claims.get(AUTHORITIES_CLAIM);
+    if (!(value instanceof Collection<?> authorities)) {
+      return List.of();
+    }
+    return authorities.stream()
+                      .map(a -> a instanceof Map<?, ?> map ? String.valueOf(map.get("authority")) : String.valueOf(a))
+                      .toList();
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.core.security;
+
+import com.example.demo.core.persistence.AfterCommit;
+import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.domain.user.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Users whose tokens must stop working in the stateless mode (jwt.stateless), where the authorization filter
+// never loads the user. Deletions and deactivations on this instance are added after commit, deactivations
+// made by other instances are read from the database every jwt.revocationRefreshMillis. An entry only has to
+// outlive the tokens issued before it, so it is dropped after the token lifetime plus the clock skew.
+// Users deleted by another instance are not known here, their tokens work until they expire.
+@Log4j2
+@Component
+public class RevokedUsers implements MeterBinder {
+
+  private final UserRepository userRepository;
+  private final boolean enabled;
+  private final long retentionMillis;
+
+  private final ConcurrentMap<UUID, Entry> revoked = new ConcurrentHashMap<>();
+
+  // Entries read from the database are removed again once the user is active, deletions stay until they expire
+  private record Entry(long addedAt, boolean deleted) {
+  }
+
+  public RevokedUsers(UserRepository userRepository, JwtProperties jwtProperties) {
+    this.userRepository = userRepository;
+    this.enabled = jwtProperties.isStateless();
+    this.retentionMillis = jwtProperties.getExpirationMillis() + jwtProperties.getAllowedClockSkewSeconds() * 1000;
+  }
+
+  public boolean isRevoked(UUID userId) {
+    Entry entry = revoked.get(userId);
+    if (entry == null) {
+      return false;
+    }
+    if (isExpired(entry, System.currentTimeMillis())) {
+      revoked.remove(userId, entry);
+      return false;
+    }
+    return true;
+  }
+
+  public void deleted(Collection<UUID> userIds) {
+    add(userIds, true);
+  }
+
+  public void deactivated(Collection<UUID> userIds) {
+    add(userIds, false);
+  }
+
+  public void reactivated(Collection<UUID> userIds) {
+    if (enabled) {
+      List<UUID> ids = List.copyOf(userIds);
+      AfterCommit.run(() -> ids.forEach(revoked::remove));
+    }
+  }
+
+  private void add(Collection<UUID> userIds, boolean deleted) {
+    if (enabled) {
+      List<UUID> ids = List.copyOf(userIds);
+      AfterCommit.run(() -> {
+        Entry entry = new Entry(System.currentTimeMillis(), deleted);
+        ids.forEach(id -> revoked.put(id, entry));
+      });
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    refresh();
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.revocationRefreshMillis:30000}",
+             initialDelayString = "${jwt.revocationRefreshMillis:30000}")
+  public void refresh() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      long start = System.currentTimeMillis();
+      Set<UUID> inactive = new HashSet<>(
+          userRepository.findInactiveIdsUpdatedSince(Instant.ofEpochMilli(start - retentionMillis)));
+      // entries added while the query ran may not be visible to it yet
+      revoked.entrySet().removeIf(e -> isExpired(e.getValue(), start)
+                                       || !e.getValue().deleted() && e.getValue().addedAt() < start
+                                          && !inactive.contains(e.getKey()));
+      Entry entry = new Entry(start, false);
+      inactive.forEach(id -> revoked.putIfAbsent(id, entry));
+    }
+    catch (RuntimeException e) {
+      log.warn("Could not refresh the revoked users", e);
+    }
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return now - entry.addedAt() > retentionMillis;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("security.revoked_users", revoked, ConcurrentMap::size)
+         .register(registry);
+  }
+}
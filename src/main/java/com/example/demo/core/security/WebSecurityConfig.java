@@ -1,7 +1,12 @@
 package com.example.demo.core.security;
 
+import com.example.demo.core.persistence.SqlStatementFilter;
+import com.example.demo.core.security.cache.PrincipalCache;
 import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.core.security.throttle.LoginThrottle;
+import com.example.demo.domain.role.RoleSnapshot;
 import com.example.demo.domain.user.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,12 +35,26 @@ public class WebSecurityConfig {
   private final UserService userService;
   private final PasswordEncoder passwordEncoder;
   private final JwtProperties jwtProperties;
+  private final PrincipalCache principalCache;
+  private final JwtCodec jwtCodec;
+  private final RoleSnapshot roleSnapshot;
+  private final LoginThrottle loginThrottle;
+  private final RevokedUsers revokedUsers;
+  private final MeterRegistry meterRegistry;
 
   @Autowired
-  public WebSecurityConfig(UserService userService, PasswordEncoder passwordEncoder, JwtProperties jwtProperties) {
+  public WebSecurityConfig(UserService userService, PasswordEncoder passwordEncoder, JwtProperties jwtProperties,
+                           PrincipalCache principalCache, JwtCodec jwtCodec, RoleSnapshot roleSnapshot,
+                           LoginThrottle loginThrottle, RevokedUsers revokedUsers, MeterRegistry meterRegistry) {
     this.userService = userService;
     this.passwordEncoder = passwordEncoder;
     this.jwtProperties = jwtProperties;
+    this.principalCache = principalCache;
+    this.jwtCodec = jwtCodec;
+    this.roleSnapshot = roleSnapshot;
+    this.loginThrottle = loginThrottle;
+    this.revokedUsers = revokedUsers;
+    this.meterRegistry = meterRegistry;
   }
 
   @Bean
@@ -43,7 +62,12 @@ public class WebSecurityConfig {
     return http
             .authorizeHttpRequests(requests -> requests
                     .requestMatchers(HttpMethod.POST, "/user/login", "/user/register", "/user/registerUser").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/user/email-available").permitAll()
+                    // content-addressed names can't be guessed, images can be embedded without a token
+                    .requestMatchers(HttpMethod.GET, "/user/images/*").permitAll()
                     .requestMatchers(HttpMethod.GET, "/v3/api-docs","/v3/api-docs/swagger-config","/swagger-ui/*").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasAuthority("METRICS_READ")
                     .anyRequest().authenticated()
             )
             .logout(logout -> logout
@@ -56,12 +80,15 @@ public class WebSecurityConfig {
                     new JWTAuthenticationFilter(
                             new AntPathRequestMatcher("/user/login", "POST"),
                             authenticationManager(),
-                            jwtProperties
+                            jwtCodec,
+                            loginThrottle,
+                            meterRegistry
                     ),
                     UsernamePasswordAuthenticationFilter.class
             )
             .addFilterAfter(
-                    new JWTAuthorizationFilter(userService, jwtProperties),
+                    new JWTAuthorizationFilter(userService, jwtCodec, jwtProperties, principalCache, roleSnapshot,
+                            revokedUsers, meterRegistry),
                     UsernamePasswordAuthenticationFilter.class
             )
             .sessionManagement(session -> session
@@ -76,9 +103,10 @@ public class WebSecurityConfig {
   public CorsConfigurationSource corsConfigurationSource() {
     CorsConfiguration configuration = new CorsConfiguration();
     configuration.setAllowedOrigins(List.of("*"));
-    configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
-    configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
-    configuration.setExposedHeaders(List.of("Authorization"));
+    configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE"));
+    configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type", "If-Match", "If-None-Match"));
+    configuration.setExposedHeaders(List.of("Authorization", "ETag", SqlStatementFilter.COUNT_HEADER,
+                                           SqlStatementFilter.TIME_HEADER));
     UrlBasedCorsConfigurationSource configurationSource = new UrlBasedCorsConfigurationSource();
     configurationSource.registerCorsConfiguration("/**", configuration);
     return configurationSource;
@@ -89,6 +117,7 @@ public class WebSecurityConfig {
     DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
     provider.setPasswordEncoder(passwordEncoder);
     provider.setUserDetailsService(userService);
+    provider.setUserDetailsPasswordService(userService);
     return new ProviderManager(provider);
   }
 
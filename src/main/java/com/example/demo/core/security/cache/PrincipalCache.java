@@ -0,0 +1,75 @@
+package com.example.demo.core.security.cache;
+
+import com.example.demo.core.persistence.AfterCommit;
+import com.example.demo.core.security.helpers.PrincipalCacheProperties;
+import com.example.demo.domain.user.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+// Authenticated principals by user id, so that repeat requests authenticate without a database round trip
+@Component
+public class PrincipalCache implements MeterBinder {
+
+  private final boolean enabled;
+  private final Cache<UUID, UserDetailsImpl> cache;
+
+  public PrincipalCache(PrincipalCacheProperties properties) {
+    this.enabled = properties.isEnabled();
+    this.cache = Caffeine.newBuilder()
+                         .maximumSize(properties.getMaximumSize())
+                         .expireAfterWrite(Duration.ofMillis(properties.getExpireAfterWriteMillis()))
+                         .recordStats()
+                         .build();
+  }
+
+  public UserDetailsImpl get(UUID userId, Function<UUID, UserDetailsImpl> loader) {
+    return enabled ? cache.get(userId, loader) : loader.apply(userId);
+  }
+
+  // Evicts now and, inside a transaction, again after commit so that a concurrent
+  // request cannot re-cache the state from before the change
+  public void evict(UUID userId) {
+    cache.invalidate(userId);
+    AfterCommit.run(() -> cache.invalidate(userId));
+  }
+
+  public void evictAll(Collection<UUID> userIds) {
+    List<UUID> ids = List.copyOf(userIds);
+    cache.invalidateAll(ids);
+    AfterCommit.run(() -> cache.invalidateAll(ids));
+  }
+
+  // Used when roles or authorities change, which affects an unknown set of users
+  public void evictAll() {
+    cache.invalidateAll();
+    AfterCommit.run(cache::invalidateAll);
+  }
+
+  public long estimatedSize() {
+    return cache.estimatedSize();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  // cache.gets/puts/evictions plus the hit ratio, which is what the size and expiry are tuned against
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "principals");
+    Gauge.builder("cache.hit.ratio", cache, principals -> principals.stats().hitRate())
+         .tag("cache", "principals")
+         .register(registry);
+  }
+}
@@ -1,15 +1,22 @@
 package com.example.demo.core.security.config;
 
+import com.example.demo.core.security.hashing.BoundedPasswordEncoder;
+import com.example.demo.core.security.helpers.PasswordHashingProperties;
+import java.util.concurrent.ThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class Encoders {
-  @Bean
-  PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  @Bean(destroyMethod = "shutdown")
+  BoundedPasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties,
+                                         @Value("${threads.virtual.enabled:false}") boolean virtualThreads) {
+    // the pool size still bounds concurrent hashes, virtual workers just don't hold a platform thread while idle
+    ThreadFactory threadFactory = virtualThreads
+        ? Thread.ofVirtual().name("password-hashing-", 1).factory()
+        : BoundedPasswordEncoder.platformThreads();
+    return new BoundedPasswordEncoder(passwordHashingProperties, threadFactory);
   }
 }
 
@@ -0,0 +1,250 @@
+package com.example.demo.core.security.hashing;
+
+import com.example.demo.core.security.helpers.PasswordHashingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Runs BCrypt on a dedicated, bounded pool so that login and registration bursts cannot occupy
+// every request thread with hashing. Work beyond the queue capacity is rejected immediately, work that
+// doesn't start within the queue wait is withdrawn, both end in a 503 instead of a stalled request.
+@Log4j2
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+  private final BCryptPasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long queueWaitMillis;
+  private final long timeoutMillis;
+  private final int strength;
+  private final int poolSize;
+  // null until bound to a registry, the encoder is also used without one
+  private volatile Timer encodeTimer;
+  private volatile Timer matchesTimer;
+
+  public BoundedPasswordEncoder(PasswordHashingProperties properties) {
+    this(properties, platformThreads());
+  }
+
+  public BoundedPasswordEncoder(PasswordHashingProperties properties, ThreadFactory threadFactory) {
+    this.strength = calibrateStrength(properties);
+    this.delegate = new BCryptPasswordEncoder(strength);
+    this.queueWaitMillis = queueWaitMillis(properties);
+    this.timeoutMillis = properties.getTimeoutMillis();
+    this.poolSize = properties.getPoolSize();
+    this.executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(), 0L,
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public static ThreadFactory platformThreads() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  // A task at the back of a full queue starts after queueCapacity / poolSize rounds of hashes, each one
+  // taking up to the target time
+  static long queueWaitMillis(PasswordHashingProperties properties) {
+    if (properties.getQueueWaitMillis() > 0) {
+      return properties.getQueueWaitMillis();
+    }
+    long rounds = Math.max(1, (properties.getQueueCapacity() + properties.getPoolSize() - 1) / properties.getPoolSize());
+    return rounds * properties.getTargetMillis();
+  }
+
+  // Highest strength whose hash time stays within the target, each step doubles the cost
+  static int calibrateStrength(PasswordHashingProperties properties) {
+    int strength = properties.getMinStrength();
+    // first run warms up the JIT, the second one is measured
+    new BCryptPasswordEncoder(strength).encode("calibration");
+    long start = System.nanoTime();
+    new BCryptPasswordEncoder(strength).encode("calibration");
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    while (strength < properties.getMaxStrength() && millis * 2 <= properties.getTargetMillis()) {
+      strength++;
+      millis *= 2;
+    }
+    log.info("Calibrated BCrypt strength {} (~{} ms per hash)", strength, millis);
+    return strength;
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  // Timed from the caller's side, so the time spent waiting in the queue is included
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return timed(encodeTimer, () -> submit(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return timed(matchesTimer, () -> submit(() -> delegate.matches(rawPassword, encodedPassword)));
+  }
+
+  private static <T> T timed(Timer timer, Supplier<T> operation) {
+    return timer == null ? operation.get() : timer.record(operation);
+  }
+
+  // Stored hashes with a lower cost than the calibrated one are re-encoded on the next successful login
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  // Hashes all passwords in parallel. At most poolSize of them are in the pool at any time, so
+  // large batches wait for their own tasks instead of filling the queue shared with logins.
+  // A password that is rejected by the full queue or times out is null in the result, so that
+  // one saturated moment doesn't fail the rest of the batch.
+  public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+    Semaphore permits = new Semaphore(poolSize);
+    List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+    try {
+      for (CharSequence rawPassword : rawPasswords) {
+        permits.acquire();
+        try {
+          futures.add(executor.submit(() -> {
+            try {
+              return delegate.encode(rawPassword);
+            }
+            finally {
+              permits.release();
+            }
+          }));
+        }
+        catch (RejectedExecutionException e) {
+          permits.release();
+          futures.add(null);
+        }
+      }
+      List<String> encoded = new ArrayList<>(futures.size());
+      for (Future<String> future : futures) {
+        encoded.add(future == null ? null : awaitOrNull(future));
+      }
+      return encoded;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingRejectedException("Password hashing interrupted", e);
+    }
+    finally {
+      futures.stream()
+             .filter(Objects::nonNull)
+             .forEach(future -> future.cancel(true));
+    }
+  }
+
+  private String awaitOrNull(Future<String> future) {
+    try {
+      return await(future);
+    }
+    catch (PasswordHashingRejectedException e) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw e;
+      }
+      return null;
+    }
+  }
+
+  private <T> T submit(Callable<T> task) {
+    CountDownLatch started = new CountDownLatch(1);
+    Future<T> future = schedule(() -> {
+      started.countDown();
+      return task.call();
+    });
+    try {
+      if (!started.await(queueWaitMillis, TimeUnit.MILLISECONDS)) {
+        withdraw(future);
+        throw new PasswordHashingRejectedException("Password hashing queue wait exceeded");
+      }
+    }
+    catch (InterruptedException e) {
+      withdraw(future);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingRejectedException("Password hashing interrupted", e);
+    }
+    return await(future);
+  }
+
+  // Frees the queue slot right away instead of when a worker reaches the cancelled task
+  private void withdraw(Future<?> future) {
+    future.cancel(true);
+    if (future instanceof Runnable runnable) {
+      executor.remove(runnable);
+    }
+  }
+
+  private <T> Future<T> schedule(Callable<T> task) {
+    try {
+      return executor.submit(task);
+    }
+    catch (RejectedExecutionException e) {
+      throw new PasswordHashingRejectedException("Password hashing capacity exceeded", e);
+    }
+  }
+
+  private <T> T await(Future<T> future) {
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException e) {
+      withdraw(future);
+      throw new PasswordHashingRejectedException("Password hashing timed out", e);
+    }
+    catch (InterruptedException e) {
+      withdraw(future);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingRejectedException("Password hashing interrupted", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    encodeTimer = Timer.builder("security.password.hashing")
+                       .tag("operation", "encode")
+                       .register(registry);
+    matchesTimer = Timer.builder("security.password.hashing")
+                        .tag("operation", "matches")
+                        .register(registry);
+    Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+         .register(registry);
+    Gauge.builder("security.password.hashing.queued", executor, pool -> pool.getQueue().size())
+         .register(registry);
+    Gauge.builder("security.password.hashing.strength", this, BoundedPasswordEncoder::getStrength)
+         .register(registry);
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
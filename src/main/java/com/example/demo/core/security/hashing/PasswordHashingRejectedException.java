@@ -0,0 +1,13 @@
+package com.example.demo.core.security.hashing;
+
+// Thrown when the password hashing pool is saturated, mapped to 503 Service Unavailable
+public class PasswordHashingRejectedException extends RuntimeException {
+
+  public PasswordHashingRejectedException(String message) {
+    super(message);
+  }
+
+  public PasswordHashingRejectedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -18,5 +18,11 @@ public class JwtProperties {
   private long expirationMillis;
   private String issuer;
   private String secret;
+  // Tolerated difference between the clocks of token issuer and validator
+  private long allowedClockSkewSeconds;
+  // Authenticate from the signed claims only, without loading the user from the database
+  private boolean stateless;
+  // How often the stateless mode reads deactivations made by other instances, see RevokedUsers
+  private long revocationRefreshMillis;
 
 }
@@ -0,0 +1,26 @@
+package com.example.demo.core.security.helpers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("security.login-throttle")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class LoginThrottleProperties {
+
+  private boolean enabled = true;
+  // upper bound of tracked addresses and emails each, idle buckets are dropped first
+  private long maximumKeys = 100_000;
+  private int addressBurst = 20;
+  private long addressRefillMillis = 1_000;
+  private int emailBurst = 5;
+  private long emailRefillMillis = 12_000;
+
+}
@@ -0,0 +1,30 @@
+package com.example.demo.core.security.helpers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("security.password-hashing")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+  private int poolSize = Runtime.getRuntime().availableProcessors();
+  private int queueCapacity = 64;
+  // Maximum time a request waits in the queue, a saturated pool answers 503 instead of stalling the request.
+  // 0 derives it from the time a full queue takes to drain, see BoundedPasswordEncoder.queueWaitMillis
+  private long queueWaitMillis = 0;
+  // Maximum time a request waits for its hash once hashing started
+  private long timeoutMillis = 5_000;
+  // BCrypt strength is calibrated at startup to the highest cost that stays below this time per hash
+  private long targetMillis = 250;
+  private int minStrength = 10;
+  private int maxStrength = 14;
+
+}
@@ -0,0 +1,102 @@
+package com.example.demo.core.security.throttle;
+
+import com.example.demo.core.security.helpers.LoginThrottleProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+// Rate limits login attempts per client address and per email before any user lookup or hash is done.
+// Both checks return the seconds to wait (0 = allowed), rejected attempts only cost a map lookup and a CAS.
+// The client address is ServletRequest.getRemoteAddr(), behind a reverse proxy it only reflects the client
+// because server.forward-headers-strategy=native takes X-Forwarded-For from trusted proxies.
+@Component
+public class LoginThrottle implements MeterBinder {
+
+  private final boolean enabled;
+  private final TokenBucketTable byAddress;
+  private final TokenBucketTable byEmail;
+
+  private final LongAdder permitted = new LongAdder();
+  private final LongAdder rejectedByAddress = new LongAdder();
+  private final LongAdder rejectedByEmail = new LongAdder();
+  private final LongAdder rejectedEmailLookups = new LongAdder();
+
+  public LoginThrottle(LoginThrottleProperties properties) {
+    this.enabled = properties.isEnabled();
+    this.byAddress = new TokenBucketTable(properties.getAddressBurst(),
+                                          Duration.ofMillis(properties.getAddressRefillMillis()),
+                                          properties.getMaximumKeys());
+    this.byEmail = new TokenBucketTable(properties.getEmailBurst(),
+                                        Duration.ofMillis(properties.getEmailRefillMillis()),
+                                        properties.getMaximumKeys());
+  }
+
+  public long tryAcquireAddress(String clientAddress) {
+    if (!enabled || clientAddress == null) {
+      return 0;
+    }
+    return reject(byAddress.tryAcquire(clientAddress, System.nanoTime()), rejectedByAddress);
+  }
+
+  // Counts as permitted only here, the address check always runs first
+  public long tryAcquireEmail(String email) {
+    if (!enabled || email == null) {
+      permitted.increment();
+      return 0;
+    }
+    long retryAfter = reject(byEmail.tryAcquire(normalize(email), System.nanoTime()), rejectedByEmail);
+    if (retryAfter == 0) {
+      permitted.increment();
+    }
+    return retryAfter;
+  }
+
+  // GET /user/email-available tells whether an email is registered, so it draws from the address buckets of
+  // the login and probing for accounts costs the same as guessing passwords
+  public long tryAcquireEmailLookup(String clientAddress) {
+    if (!enabled || clientAddress == null) {
+      return 0;
+    }
+    return reject(byAddress.tryAcquire(clientAddress, System.nanoTime()), rejectedEmailLookups);
+  }
+
+  static String normalize(String email) {
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static long reject(long waitNanos, LongAdder counter) {
+    if (waitNanos == 0) {
+      return 0;
+    }
+    counter.increment();
+    // rounded up, a Retry-After of 0 would invite an immediate retry
+    return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("security.login.attempts", permitted, LongAdder::sum)
+                   .tag("result", "permitted")
+                   .register(registry);
+    FunctionCounter.builder("security.login.attempts", rejectedByAddress, LongAdder::sum)
+                   .tag("result", "throttled_address")
+                   .register(registry);
+    FunctionCounter.builder("security.login.attempts", rejectedByEmail, LongAdder::sum)
+                   .tag("result", "throttled_email")
+                   .register(registry);
+    FunctionCounter.builder("security.email_lookups.throttled", rejectedEmailLookups, LongAdder::sum)
+                   .register(registry);
+    Gauge.builder("security.login.throttle.keys", byAddress, TokenBucketTable::estimatedSize)
+         .tag("key", "address")
+         .register(registry);
+    Gauge.builder("security.login.throttle.keys", byEmail, TokenBucketTable::estimatedSize)
+         .tag("key", "email")
+         .register(registry);
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.core.security.throttle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets by key, stored as the theoretical arrival time of the next request (GCRA),
+// so a bucket is a single AtomicLong updated with CAS and never locked.
+// A bucket that has been idle for burst * refill is full again and equal to a new one,
+// which is why the table can expire it after that time without changing any decision.
+class TokenBucketTable {
+
+  private final long refillNanos;
+  private final long burstNanos;
+  private final Cache<String, AtomicLong> buckets;
+
+  TokenBucketTable(int burst, Duration refill, long maximumKeys) {
+    this.refillNanos = refill.toNanos();
+    this.burstNanos = refillNanos * burst;
+    this.buckets = Caffeine.newBuilder()
+                           .maximumSize(maximumKeys)
+                           .expireAfterAccess(Duration.ofNanos(burstNanos))
+                           .build();
+  }
+
+  // Takes one token, returns 0 if it was available or else the nanos until the next one is
+  long tryAcquire(String key, long now) {
+    AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+    while (true) {
+      long arrival = bucket.get();
+      long next = Math.max(arrival, now) + refillNanos;
+      long wait = next - now - burstNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (bucket.compareAndSet(arrival, next)) {
+        return 0;
+      }
+    }
+  }
+
+  long estimatedSize() {
+    return buckets.estimatedSize();
+  }
+}
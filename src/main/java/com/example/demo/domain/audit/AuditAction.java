@@ -0,0 +1,7 @@
+package com.example.demo.domain.audit;
+
+public enum AuditAction {
+  CREATED,
+  UPDATED,
+  DELETED
+}
@@ -0,0 +1,46 @@
+package com.example.demo.domain.audit;
+
+import com.example.demo.domain.audit.dto.AuditEventDTO;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/audit")
+public class AuditController {
+
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final AuditService auditService;
+
+  @Autowired
+  public AuditController(AuditService auditService) {
+    this.auditService = auditService;
+  }
+
+  // Newest first
+  @GetMapping({"", "/"})
+  @PreAuthorize("hasAuthority('AUDIT_READ')")
+  public ResponseEntity<Page<AuditEventDTO>> search(
+          @RequestParam(required = false) UUID entityId,
+          @RequestParam(required = false) AuditAction action,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+          @RequestParam(defaultValue = "0") int page,
+          @RequestParam(defaultValue = "20") int size
+  ) {
+    PageRequest pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE),
+                                          Sort.by(Sort.Direction.DESC, "occurredAt", "id"));
+    return ResponseEntity.ok(auditService.search(entityId, action, from, to, pageable).map(AuditEventDTO::of));
+  }
+}
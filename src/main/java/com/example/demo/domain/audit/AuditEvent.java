@@ -0,0 +1,52 @@
+package com.example.demo.domain.audit;
+
+import com.example.demo.core.generic.AbstractEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.Immutable;
+
+// Written by AuditLog through JDBC batches, JPA only creates the table and reads it back
+@Entity
+@Immutable
+@Table(name = "audit_event")
+@NoArgsConstructor
+@Getter
+@Setter
+@Accessors(chain = true)
+public class AuditEvent extends AbstractEntity {
+
+  @Column(name = "occurred_at", nullable = false)
+  private Instant occurredAt;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "action", nullable = false, length = 16)
+  private AuditAction action;
+
+  @Column(name = "entity_type", nullable = false)
+  private String entityType;
+
+  @Column(name = "entity_id", columnDefinition = "uuid")
+  private UUID entityId;
+
+  // email of the authenticated user, null for anonymous requests such as registration
+  @Column(name = "actor")
+  private String actor;
+
+  public AuditEvent(UUID id, Instant occurredAt, AuditAction action, String entityType, UUID entityId, String actor) {
+    super(id);
+    this.occurredAt = occurredAt;
+    this.action = action;
+    this.entityType = entityType;
+    this.entityId = entityId;
+    this.actor = actor;
+  }
+}
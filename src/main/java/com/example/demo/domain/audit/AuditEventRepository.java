@@ -0,0 +1,8 @@
+package com.example.demo.domain.audit;
+
+import com.example.demo.core.generic.AbstractRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuditEventRepository extends AbstractRepository<AuditEvent> {
+}
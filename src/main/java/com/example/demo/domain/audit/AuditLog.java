@@ -0,0 +1,167 @@
+package com.example.demo.domain.audit;
+
+import com.example.demo.core.persistence.AfterCommit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// Entity lifecycle events are put into a lock-free ring buffer by the request threads and written
+// to audit_event in JDBC batches by a single background thread, so recording an event never does I/O.
+// Events are only enqueued once their transaction committed, rolled back writes leave no trace.
+@Log4j2
+@Component
+public class AuditLog implements SmartLifecycle, MeterBinder {
+
+  private static final String INSERT = "INSERT INTO audit_event (id, occurred_at, action, entity_type, entity_id, actor) "
+                                       + "VALUES (?, ?, ?, ?, ?, ?)";
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AuditProperties properties;
+  private final AuditRingBuffer<AuditEvent> buffer;
+  private final long flushIntervalNanos;
+
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  private volatile boolean running;
+  private Thread writer;
+
+  public AuditLog(JdbcTemplate jdbcTemplate, AuditProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.buffer = new AuditRingBuffer<>(properties.getCapacity());
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMillis());
+  }
+
+  public void record(AuditAction action, String entityType, UUID entityId) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    AuditEvent event = new AuditEvent(UUID.randomUUID(), Instant.now(), action, entityType, entityId, currentActor());
+    AfterCommit.run(() -> enqueue(event));
+  }
+
+  private void enqueue(AuditEvent event) {
+    if (buffer.offer(event)) {
+      return;
+    }
+    if (properties.getOverflow() == AuditProperties.Overflow.BLOCK) {
+      while (running) {
+        LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        if (buffer.offer(event)) {
+          return;
+        }
+      }
+    }
+    dropped.increment();
+  }
+
+  private static String currentActor() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+  }
+
+  private void writeLoop() {
+    List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+    // keeps draining after stop() until everything that was accepted is written
+    while (running || buffer.size() > 0) {
+      if (buffer.drainTo(batch, properties.getBatchSize()) == 0) {
+        LockSupport.parkNanos(flushIntervalNanos);
+        continue;
+      }
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<AuditEvent> batch) {
+    try {
+      jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), AuditLog::bind);
+      written.add(batch.size());
+    }
+    catch (RuntimeException e) {
+      // nothing may take the writer down, not even a bug in a driver or an event, the batch is counted and
+      // logged instead
+      failed.add(batch.size());
+      log.error("Could not write {} audit events", batch.size(), e);
+    }
+  }
+
+  private static void bind(PreparedStatement statement, AuditEvent event) throws SQLException {
+    statement.setObject(1, event.getId());
+    statement.setTimestamp(2, Timestamp.from(event.getOccurredAt()));
+    statement.setString(3, event.getAction().name());
+    statement.setString(4, event.getEntityType());
+    statement.setObject(5, event.getEntityId());
+    statement.setString(6, event.getActor());
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    writer = new Thread(this::writeLoop, "audit-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void stop() {
+    if (writer == null) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // stopped after the web server so that in-flight requests are still recorded,
+  // the DataSource is only closed later when the beans are destroyed
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("audit.events", written, LongAdder::sum)
+                   .tag("result", "written")
+                   .register(registry);
+    FunctionCounter.builder("audit.events", dropped, LongAdder::sum)
+                   .tag("result", "dropped")
+                   .register(registry);
+    FunctionCounter.builder("audit.events", failed, LongAdder::sum)
+                   .tag("result", "failed")
+                   .register(registry);
+    Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+         .register(registry);
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.domain.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("audit")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AuditProperties {
+
+  public enum Overflow {
+    // lose the event and count it, the request never waits for the audit trail
+    DROP,
+    // wait for the writer to free a slot, no event is lost but requests slow down with the database
+    BLOCK
+  }
+
+  private boolean enabled = true;
+  // rounded up to a power of two
+  private int capacity = 8192;
+  private int batchSize = 500;
+  private long flushIntervalMillis = 200;
+  private Overflow overflow = Overflow.DROP;
+
+}
@@ -0,0 +1,11 @@
+package com.example.demo.domain.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface AuditService {
+
+  Page<AuditEvent> search(UUID entityId, AuditAction action, Instant from, Instant to, Pageable pageable);
+}
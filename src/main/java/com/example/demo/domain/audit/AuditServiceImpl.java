@@ -0,0 +1,33 @@
+package com.example.demo.domain.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class AuditServiceImpl implements AuditService {
+
+  private final AuditEventRepository repository;
+
+  @Autowired
+  public AuditServiceImpl(AuditEventRepository repository) {
+    this.repository = repository;
+  }
+
+  // All filters are optional, null values are ignored
+  @Override
+  @Transactional(readOnly = true)
+  public Page<AuditEvent> search(UUID entityId, AuditAction action, Instant from, Instant to, Pageable pageable) {
+    Specification<AuditEvent> spec = Specification.<AuditEvent>where(null)
+        .and(entityId == null ? null : (root, query, cb) -> cb.equal(root.get("entityId"), entityId))
+        .and(action == null ? null : (root, query, cb) -> cb.equal(root.get("action"), action))
+        .and(from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("occurredAt"), from))
+        .and(to == null ? null : (root, query, cb) -> cb.lessThan(root.get("occurredAt"), to));
+    return repository.findAll(spec, pageable);
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.domain.audit.dto;
+
+import com.example.demo.domain.audit.AuditAction;
+import com.example.demo.domain.audit.AuditEvent;
+import java.time.Instant;
+import java.util.UUID;
+
+public record AuditEventDTO(UUID id, Instant occurredAt, AuditAction action, String entityType, UUID entityId,
+                            String actor) {
+
+  public static AuditEventDTO of(AuditEvent event) {
+    return new AuditEventDTO(event.getId(), event.getOccurredAt(), event.getAction(), event.getEntityType(),
+                             event.getEntityId(), event.getActor());
+  }
+}
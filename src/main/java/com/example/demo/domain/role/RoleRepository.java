@@ -1,8 +1,13 @@
 package com.example.demo.domain.role;
 
 import com.example.demo.core.generic.AbstractRepository;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RoleRepository extends AbstractRepository<Role> {
+
+  @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.authorities")
+  List<Role> findAllWithAuthorities();
 }
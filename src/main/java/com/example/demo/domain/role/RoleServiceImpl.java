@@ -1,6 +1,8 @@
 package com.example.demo.domain.role;
 
 import com.example.demo.core.generic.AbstractServiceImpl;
+import com.example.demo.core.security.cache.PrincipalCache;
+import java.util.UUID;
 import lombok.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -9,10 +11,38 @@ import org.springframework.stereotype.Service;
 @Service
 public class RoleServiceImpl extends AbstractServiceImpl<Role> implements RoleService {
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
+    private final RoleSnapshot roleSnapshot;
 
     @Autowired
-    public RoleServiceImpl(RoleRepository roleRepository) {
+    public RoleServiceImpl(RoleRepository roleRepository, PrincipalCache principalCache, RoleSnapshot roleSnapshot) {
         super(roleRepository);
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
+        this.roleSnapshot = roleSnapshot;
+    }
+
+    // Cached principals and the role snapshot carry roles and authorities, any role change invalidates them
+    @Override
+    public Role save(Role role) {
+        Role saved = super.save(role);
+        principalCache.evictAll();
+        roleSnapshot.refreshAfterCommit();
+        return saved;
+    }
+
+    @Override
+    public Role updateById(UUID id, Role role) {
+        Role updated = super.updateById(id, role);
+        principalCache.evictAll();
+        roleSnapshot.refreshAfterCommit();
+        return updated;
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        super.deleteById(id);
+        principalCache.evictAll();
+        roleSnapshot.refreshAfterCommit();
     }
 }
@@ -0,0 +1,105 @@
+package com.example.demo.domain.role;
+
+import com.example.demo.core.persistence.AfterCommit;
+import com.example.demo.domain.authority.Authority;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+// Immutable in-memory copy of all roles and their authorities, replaced as a whole when roles change.
+// Every distinct role set maps to one shared, immutable authority list, so principals built from the
+// snapshot do not allocate authorities during authorization checks.
+@Component
+public class RoleSnapshot {
+
+  public static final UUID USER_ROLE_ID = UUID.fromString("c6aee32d-8c35-4481-8b3e-a876a39b0c02");
+
+  private final RoleRepository roleRepository;
+  private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+  public RoleSnapshot(RoleRepository roleRepository) {
+    this.roleRepository = roleRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void refresh() {
+    current.set(Snapshot.of(roleRepository.findAllWithAuthorities()));
+  }
+
+  public void refreshAfterCommit() {
+    AfterCommit.run(this::refresh);
+  }
+
+  // Role assigned to every self-registered user, looked up only until the snapshot has been loaded
+  public Role defaultUserRole() {
+    Role userRole = current.get().roles.get(USER_ROLE_ID);
+    return userRole != null ? userRole : roleRepository.findById(USER_ROLE_ID)
+                                                       .orElseThrow();
+  }
+
+  public List<GrantedAuthority> authoritiesOf(Set<Role> roles) {
+    Snapshot snapshot = current.get();
+    Set<UUID> key = roles.stream()
+                         .map(Role::getId)
+                         .collect(Collectors.toUnmodifiableSet());
+    return snapshot.byRoleSet.computeIfAbsent(key, k -> snapshot.intern(roles.stream()
+                                                                             .flatMap(r -> snapshot.authorityNamesOf(r)
+                                                                                                   .stream())
+                                                                             .toList()));
+  }
+
+  public List<GrantedAuthority> authoritiesOf(List<String> authorityNames) {
+    Snapshot snapshot = current.get();
+    return snapshot.byNames.computeIfAbsent(authorityNames, snapshot::intern);
+  }
+
+  private record Snapshot(Map<UUID, Role> roles,
+                          Map<String, GrantedAuthority> authorities,
+                          ConcurrentMap<Set<UUID>, List<GrantedAuthority>> byRoleSet,
+                          ConcurrentMap<List<String>, List<GrantedAuthority>> byNames) {
+
+    static final Snapshot EMPTY = of(List.of());
+
+    static Snapshot of(Collection<Role> roles) {
+      Map<String, GrantedAuthority> authorities = roles.stream()
+                                                       .flatMap(r -> r.getAuthorities()
+                                                                      .stream())
+                                                       .map(Authority::getName)
+                                                       .distinct()
+                                                       .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                                                           SimpleGrantedAuthority::new));
+      return new Snapshot(roles.stream()
+                               .collect(Collectors.toUnmodifiableMap(Role::getId, Function.identity())),
+          authorities, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    // Roles created after the last refresh are resolved from their own authorities
+    List<String> authorityNamesOf(Role role) {
+      Role known = roles.getOrDefault(role.getId(), role);
+      return known.getAuthorities()
+                  .stream()
+                  .map(Authority::getName)
+                  .toList();
+    }
+
+    List<GrantedAuthority> intern(List<String> names) {
+      return List.copyOf(new LinkedHashSet<>(names).stream()
+                                                   .map(name -> authorities.getOrDefault(name,
+                                                       new SimpleGrantedAuthority(name)))
+                                                   .toList());
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.domain.user;
+
+// Thrown by the registration pre-check, answered like the unique constraint violation it avoids
+public class EmailAlreadyInUseException extends RuntimeException {
+
+  public EmailAlreadyInUseException(String email) {
+    super("This email address is already in use: " + email);
+  }
+}
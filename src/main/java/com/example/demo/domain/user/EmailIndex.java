@@ -0,0 +1,145 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.generic.AbstractRebuildableIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Answers "is this email taken" from a Bloom filter of normalized emails, so most checks of new
+// addresses never reach the database. Only a "maybe" falls back to the unique index on users.email.
+// Deleted emails can't be removed from the filter, they are counted and the filter is rebuilt once
+// too many of them (or more users than it was sized for) make the fallback frequent.
+// The unique constraint stays the final word, the filter only avoids work in front of it.
+@Log4j2
+@Component
+public class EmailIndex extends AbstractRebuildableIndex<EmailBloomFilter> implements MeterBinder {
+
+  private static final double MAX_STALE_RATIO = 0.1;
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+
+  private final LongAdder stale = new LongAdder();
+
+  private final LongAdder definitelyFree = new LongAdder();
+  private final LongAdder fallbackLookups = new LongAdder();
+
+  public EmailIndex(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                    @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                    @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    rebuild();
+  }
+
+  @Scheduled(fixedDelayString = "${users.email-filter.check-interval-millis:60000}")
+  public void rebuildIfDegraded() {
+    EmailBloomFilter filter = current();
+    if (filter != null && (filter.insertions() > filter.capacity()
+                           || stale.sum() > filter.insertions() * MAX_STALE_RATIO)) {
+      rebuild();
+    }
+  }
+
+  public void rebuild() {
+    EmailBloomFilter next = rebuild(() -> {
+      long users = userRepository.count();
+      EmailBloomFilter filter = new EmailBloomFilter(Math.max(expectedInsertions, users * 2), falsePositiveRate);
+      stale.reset();
+      readOnlyTransaction.executeWithoutResult(status -> {
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+          emails.forEach(email -> filter.add(normalize(email)));
+        }
+      });
+      return filter;
+    });
+    if (next != null) {
+      log.info("Email filter built from {} users ({} KiB)", next.insertions(), next.sizeInBytes() / 1024);
+    }
+  }
+
+  public boolean isTaken(String email) {
+    if (email == null || isDefinitelyFree(email)) {
+      return false;
+    }
+    fallbackLookups.increment();
+    return userRepository.existsByEmail(email);
+  }
+
+  // Bulk variant for batch registration, only the "maybe" emails are looked up (in one query)
+  public Set<String> findTaken(Collection<String> emails) {
+    List<String> candidates = emails.stream()
+                                    .filter(email -> email != null && !isDefinitelyFree(email))
+                                    .toList();
+    if (candidates.isEmpty()) {
+      return Set.of();
+    }
+    fallbackLookups.add(candidates.size());
+    return userRepository.findExistingEmails(candidates);
+  }
+
+  void added(String email) {
+    if (email != null) {
+      String key = normalize(email);
+      afterCommit(filter -> filter.add(key));
+    }
+  }
+
+  void removed(String email) {
+    stale.increment();
+  }
+
+  void removedAll(long count) {
+    stale.add(count);
+  }
+
+  private boolean isDefinitelyFree(String email) {
+    EmailBloomFilter filter = current();
+    // not warmed yet, everything is a "maybe"
+    if (filter == null || filter.mightContain(normalize(email))) {
+      return false;
+    }
+    definitelyFree.increment();
+    return true;
+  }
+
+  static String normalize(String email) {
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("users.email_filter.checks", definitelyFree, LongAdder::sum)
+                   .tag("result", "definitely_free")
+                   .register(registry);
+    FunctionCounter.builder("users.email_filter.checks", fallbackLookups, LongAdder::sum)
+                   .tag("result", "database_lookup")
+                   .register(registry);
+    Gauge.builder("users.email_filter.stale", stale, LongAdder::sum)
+         .register(registry);
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.generic.AbstractRebuildableIndex;
+import com.example.demo.domain.user.dto.UserNameDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Name autocomplete from memory, a lookup is a range scan of a skip list and takes a few microseconds.
+// Built at startup and kept current by UserNameListener, changes are applied after commit.
+// Needs about 380 bytes per user including the names (~360 MiB per million users, 64-bit JVM with
+// compressed oops), see NameIndexBenchmark. A periodic rebuild corrects drift from writes that bypass
+// the entity listeners.
+@Log4j2
+@Component
+public class NameIndex extends AbstractRebuildableIndex<NamePrefixMap> implements MeterBinder {
+
+  private static final long BYTES_PER_USER = 380;
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final LongAdder memoryLookups = new LongAdder();
+  private final LongAdder fallbackLookups = new LongAdder();
+
+  public NameIndex(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    rebuild();
+  }
+
+  @Scheduled(fixedDelayString = "${users.name-index.rebuild-interval-millis:3600000}",
+             initialDelayString = "${users.name-index.rebuild-interval-millis:3600000}")
+  public void rebuild() {
+    long start = System.nanoTime();
+    NamePrefixMap next = rebuild(() -> {
+      NamePrefixMap names = new NamePrefixMap();
+      readOnlyTransaction.executeWithoutResult(status -> {
+        try (Stream<UserNameDTO> stream = userRepository.streamAllNames()) {
+          stream.forEach(names::put);
+        }
+      });
+      return names;
+    });
+    if (next != null) {
+      log.info("Name index built from {} users in {} ms (~{} MiB)", next.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), next.size() * BYTES_PER_USER / (1024 * 1024));
+    }
+  }
+
+  public List<UserNameDTO> search(String prefix, int limit) {
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    NamePrefixMap names = current();
+    if (names != null) {
+      memoryLookups.increment();
+      return names.search(prefix, limit);
+    }
+    // not warmed yet
+    fallbackLookups.increment();
+    return userRepository.findAll(UserSpecifications.nameStartsWith(prefix), Sort.by("lastName", "firstName"), limit)
+                         .stream()
+                         .map(user -> new UserNameDTO(user.getId(), user.getFirstName(), user.getLastName()))
+                         .toList();
+  }
+
+  void updated(User user) {
+    UserNameDTO name = new UserNameDTO(user.getId(), user.getFirstName(), user.getLastName());
+    afterCommit(names -> names.put(name));
+  }
+
+  void removed(UUID id) {
+    afterCommit(names -> names.remove(id));
+  }
+
+  void removedAll(Collection<UUID> ids) {
+    List<UUID> removed = List.copyOf(ids);
+    afterCommit(names -> removed.forEach(names::remove));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("users.name_index.lookups", memoryLookups, LongAdder::sum)
+                   .tag("source", "memory")
+                   .register(registry);
+    FunctionCounter.builder("users.name_index.lookups", fallbackLookups, LongAdder::sum)
+                   .tag("source", "database")
+                   .register(registry);
+    Gauge.builder("users.name_index.size", this, index -> {
+           NamePrefixMap names = index.current();
+           return names == null ? 0 : names.size();
+         })
+         .register(registry);
+  }
+}
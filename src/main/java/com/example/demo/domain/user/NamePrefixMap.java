@@ -0,0 +1,130 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserNameDTO;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Sorted map from normalized names to users. Every user is stored under "last first" and "first last",
+// so a prefix range scan finds first names, last names and "first last" or "last first" queries alike.
+// Values are a single UserNameDTO or, for users sharing a name, an array of them.
+final class NamePrefixMap {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final ConcurrentSkipListMap<String, Object> byName = new ConcurrentSkipListMap<>();
+  // the indexed names of each user, needed to remove the old keys on updates
+  private final ConcurrentHashMap<UUID, UserNameDTO> byId = new ConcurrentHashMap<>();
+
+  // compute() locks the user's bin, so concurrent updates of one user can't interleave their keys
+  void put(UserNameDTO name) {
+    byId.compute(name.id(), (id, previous) -> {
+      if (previous != null) {
+        unlink(previous);
+      }
+      link(name);
+      return name;
+    });
+  }
+
+  void remove(UUID id) {
+    byId.computeIfPresent(id, (key, previous) -> {
+      unlink(previous);
+      return null;
+    });
+  }
+
+  // The first users in key order whose first or last name starts with the prefix
+  List<UserNameDTO> search(String prefix, int limit) {
+    String from = normalize(prefix);
+    List<UserNameDTO> matches = new ArrayList<>(limit);
+    if (from.isEmpty()) {
+      return matches;
+    }
+    Set<UUID> seen = new HashSet<>();
+    for (Map.Entry<String, Object> entry : byName.tailMap(from).entrySet()) {
+      if (!entry.getKey().startsWith(from)) {
+        break;
+      }
+      for (UserNameDTO name : values(entry.getValue())) {
+        if (seen.add(name.id())) {
+          matches.add(name);
+          if (matches.size() == limit) {
+            return matches;
+          }
+        }
+      }
+    }
+    return matches;
+  }
+
+  int size() {
+    return byId.size();
+  }
+
+  private void link(UserNameDTO name) {
+    for (String key : keys(name)) {
+      byName.merge(key, name, NamePrefixMap::append);
+    }
+  }
+
+  private void unlink(UserNameDTO name) {
+    for (String key : keys(name)) {
+      byName.computeIfPresent(key, (k, value) -> without(value, name.id()));
+    }
+  }
+
+  private static String[] keys(UserNameDTO name) {
+    String first = normalize(name.firstName());
+    String last = normalize(name.lastName());
+    return new String[] {(last + " " + first).trim(), (first + " " + last).trim()};
+  }
+
+  // Case, accents and repeated whitespace are ignored, an accented name is found without typing the accent
+  static String normalize(String value) {
+    if (value == null) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+    return WHITESPACE.matcher(DIACRITICS.matcher(decomposed).replaceAll(""))
+                     .replaceAll(" ")
+                     .trim()
+                     .toLowerCase(Locale.ROOT);
+  }
+
+  private static Object append(Object value, Object added) {
+    UserNameDTO name = (UserNameDTO) added;
+    if (value instanceof UserNameDTO single) {
+      return single.id().equals(name.id()) ? name : new UserNameDTO[] {single, name};
+    }
+    UserNameDTO[] names = (UserNameDTO[]) value;
+    UserNameDTO[] appended = Arrays.copyOf(names, names.length + 1);
+    appended[names.length] = name;
+    return appended;
+  }
+
+  // null removes the key
+  private static Object without(Object value, UUID id) {
+    if (value instanceof UserNameDTO single) {
+      return single.id().equals(id) ? null : single;
+    }
+    UserNameDTO[] remaining = Arrays.stream((UserNameDTO[]) value)
+                                    .filter(name -> !name.id().equals(id))
+                                    .toArray(UserNameDTO[]::new);
+    return remaining.length == 0 ? null : remaining.length == 1 ? remaining[0] : remaining;
+  }
+
+  private static UserNameDTO[] values(Object value) {
+    return value instanceof UserNameDTO single ? new UserNameDTO[] {single} : (UserNameDTO[]) value;
+  }
+}
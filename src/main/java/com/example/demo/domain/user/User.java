@@ -3,10 +3,13 @@ package com.example.demo.domain.user;
 import com.example.demo.core.generic.AbstractEntity;
 import com.example.demo.domain.role.Role;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.example.demo.domain.userProfile.UserProfile;
 import jakarta.persistence.*;
@@ -14,8 +17,20 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
-
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
+// Fetch plans per use case, the repository methods declare which one they need.
+// The profile is the inverse side of a one-to-one and can't be proxied, so every plan joins it
+// instead of letting Hibernate issue one select per user.
+@NamedEntityGraph(name = User.GRAPH_LIST, attributeNodes = @NamedAttributeNode("profile"))
+@NamedEntityGraph(name = User.GRAPH_DETAIL,
+                  attributeNodes = {@NamedAttributeNode("profile"), @NamedAttributeNode(value = "roles", subgraph = "roles")},
+                  subgraphs = @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("authorities")))
 @Entity
+@DynamicUpdate
+@EntityListeners({UserEmailListener.class, UserNameListener.class, UserDirectoryListener.class,
+                  UserStatisticsListener.class, UserAuditListener.class, UserRevocationListener.class})
 @Table(name = "users")
 @NoArgsConstructor
 @Getter
@@ -23,19 +38,53 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 public class User extends AbstractEntity {
 
+  // Profile only, for list views
+  public static final String GRAPH_LIST = "User.list";
+
+  // Profile, roles and authorities, for authentication and id lookups
+  public static final String GRAPH_DETAIL = "User.detail";
+
+  private static final Pattern TRAILING_NUMBER = Pattern.compile("(\\d{1,18})$");
+
   @Column(name = "first_name")
   private String firstName;
 
   @Column(name = "last_name")
   private String lastName;
 
+  // Numeric suffix of the last name (e.g. 42 for "LastName42"), kept in sync on every write
+  // so that admin search can ORDER BY an indexed column instead of parsing names per comparison
+  @Column(name = "last_name_number", nullable = false, columnDefinition = "bigint default 0")
+  private long lastNameNumber;
+
   @Column(name = "email", unique = true, nullable = false)
   private String email;
 
   @Column(name = "password")
   private String password;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  // Deactivated users can't log in, existing tokens stop working once the principal is reloaded, or in the
+  // stateless mode once RevokedUsers knows about the deactivation
+  @Column(name = "active", nullable = false, columnDefinition = "boolean default true")
+  private boolean active = true;
+
+  // Signup time, counted per day by UserStatistics
+  @Column(name = "created_at", nullable = false, updatable = false,
+          columnDefinition = "timestamp with time zone default current_timestamp")
+  private Instant createdAt;
+
+  // Maintained by the lifecycle callbacks, used for incremental exports
+  @Column(name = "updated_at", nullable = false, columnDefinition = "timestamp with time zone default current_timestamp")
+  private Instant updatedAt;
+
+  // Optimistic locking and the ETags of the user endpoints, also bumped when the roles change
+  @Version
+  @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+  private long version;
+
+  // Lazy unless a fetch plan asks for it, batched so that mapping a page of users stays one query
+  @ManyToMany(fetch = FetchType.LAZY)
+  @BatchSize(size = 50)
   @JoinTable(name = "users_role", joinColumns = @JoinColumn(name = "users_id", referencedColumnName = "id"),
              inverseJoinColumns = @JoinColumn(name = "role_id", referencedColumnName = "id"))
   private Set<Role> roles = new HashSet<>();
@@ -43,30 +92,43 @@ public class User extends AbstractEntity {
   @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
   private UserProfile profile;
 
+  // The email as last read or written, tells UserEmailListener whether an update changed it
+  @Transient
+  private String persistedEmail;
+
+  // Derived columns only, lifecycle events go to the audit trail through UserAuditListener
   @PrePersist
-  public void logNewUserAttempt() {
-    System.out.println("Attempting to add new user with username: " + getEmail());
+  public void beforeInsert() {
+    updateLastNameNumber();
+    updatedAt = Instant.now();
+    if (createdAt == null) {
+      createdAt = updatedAt;
+    }
   }
 
-  @PostPersist
-  public void logNewUserAdded() {
-    System.out.println("Added user: " + getEmail());
+  @PreUpdate
+  public void beforeUpdate() {
+    updateLastNameNumber();
+    updatedAt = Instant.now();
   }
 
-  @PreUpdate
-  public void logUpdate() {
-    System.out.println("User is being updated: " + getId());
+  private void updateLastNameNumber() {
+    lastNameNumber = trailingNumber(lastName);
   }
 
-  @PreRemove
-  public void logDelete() {
-    System.out.println("User is being deleted: " + getId());
+  static long trailingNumber(String value) {
+    if (value == null) {
+      return 0;
+    }
+    Matcher m = TRAILING_NUMBER.matcher(value);
+    return m.find() ? Long.parseLong(m.group(1)) : 0;
   }
 
   public User(UUID id, String firstName, String lastName, String email, String password, Set<Role> roles, UserProfile profile) {
     super(id);
     this.firstName = firstName;
     this.lastName = lastName;
+    this.lastNameNumber = trailingNumber(lastName);
     this.email = email;
     this.password = password;
     this.roles = roles;
@@ -0,0 +1,35 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.audit.AuditAction;
+import com.example.demo.domain.audit.AuditLog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Reports user lifecycle events to the audit trail, the AuditLog only enqueues them after commit
+public class UserAuditListener {
+
+  private static final String ENTITY_TYPE = "User";
+
+  private final ObjectProvider<AuditLog> auditLog;
+
+  public UserAuditListener(ObjectProvider<AuditLog> auditLog) {
+    this.auditLog = auditLog;
+  }
+
+  @PostPersist
+  void created(User user) {
+    auditLog.ifAvailable(log -> log.record(AuditAction.CREATED, ENTITY_TYPE, user.getId()));
+  }
+
+  @PostUpdate
+  void updated(User user) {
+    auditLog.ifAvailable(log -> log.record(AuditAction.UPDATED, ENTITY_TYPE, user.getId()));
+  }
+
+  @PostRemove
+  void deleted(User user) {
+    auditLog.ifAvailable(log -> log.record(AuditAction.DELETED, ENTITY_TYPE, user.getId()));
+  }
+}
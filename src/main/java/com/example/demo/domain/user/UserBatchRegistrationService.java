@@ -0,0 +1,11 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.BatchRegistrationReport;
+import com.example.demo.domain.user.dto.UserRegisterDTO;
+import java.util.Iterator;
+
+public interface UserBatchRegistrationService {
+
+  // Registers every item independently, a failing item does not affect the others
+  BatchRegistrationReport registerAll(Iterator<UserRegisterDTO> users);
+}
@@ -0,0 +1,228 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.hashing.BoundedPasswordEncoder;
+import com.example.demo.core.security.hashing.PasswordHashingRejectedException;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.user.dto.BatchRegistrationReport;
+import com.example.demo.domain.user.dto.BatchRegistrationReport.Item;
+import com.example.demo.domain.user.dto.UserMapper;
+import com.example.demo.domain.user.dto.UserRegisterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+// Registers users in chunks of the JDBC batch size: passwords of a chunk are hashed in parallel and the
+// chunk is inserted in one transaction. If that transaction fails (e.g. an email registered concurrently),
+// the chunk is retried item by item so that only the offending items are reported as failed.
+@Log4j2
+@Service
+public class UserBatchRegistrationServiceImpl implements UserBatchRegistrationService {
+
+  private static final String HASHING_REJECTED = "Too many concurrent password operations, please retry.";
+  private static final String EMAIL_TAKEN = "This email address is already in use.";
+
+  private final UserRepository userRepository;
+  private final EmailIndex emailIndex;
+  private final UserMapper userMapper;
+  private final RoleSnapshot roleSnapshot;
+  private final BoundedPasswordEncoder passwordEncoder;
+  private final Validator validator;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  @Autowired
+  public UserBatchRegistrationServiceImpl(UserRepository userRepository, EmailIndex emailIndex, UserMapper userMapper,
+                                          RoleSnapshot roleSnapshot, BoundedPasswordEncoder passwordEncoder,
+                                          Validator validator, EntityManager entityManager,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize) {
+    this.userRepository = userRepository;
+    this.emailIndex = emailIndex;
+    this.userMapper = userMapper;
+    this.roleSnapshot = roleSnapshot;
+    this.passwordEncoder = passwordEncoder;
+    this.validator = validator;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+  }
+
+  private record Pending(int index, UserRegisterDTO dto) {
+  }
+
+  @Override
+  public BatchRegistrationReport registerAll(Iterator<UserRegisterDTO> users) {
+    List<Item> results = new ArrayList<>();
+    Set<String> seenEmails = new HashSet<>();
+    List<Pending> chunk = new ArrayList<>(chunkSize);
+    int index = 0;
+    while (users.hasNext()) {
+      UserRegisterDTO dto = users.next();
+      String error = validate(dto, seenEmails);
+      if (error != null) {
+        results.add(Item.failed(index, dto == null ? null : dto.getEmail(), error));
+      } else {
+        chunk.add(new Pending(index, dto));
+      }
+      index++;
+      if (chunk.size() == chunkSize) {
+        results.addAll(registerChunk(chunk));
+        chunk = new ArrayList<>(chunkSize);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      results.addAll(registerChunk(chunk));
+    }
+    results.sort(Comparator.comparingInt(Item::index));
+    return BatchRegistrationReport.of(results);
+  }
+
+  private String validate(UserRegisterDTO dto, Set<String> seenEmails) {
+    if (dto == null) {
+      return "Item is empty";
+    }
+    Set<ConstraintViolation<UserRegisterDTO>> violations = validator.validate(dto);
+    if (!violations.isEmpty()) {
+      return violations.stream()
+                       .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                       .sorted()
+                       .collect(Collectors.joining(", "));
+    }
+    if (dto.getEmail() == null || dto.getEmail().isBlank()) {
+      return "email: must not be blank";
+    }
+    if (dto.getPassword() == null || dto.getPassword().isBlank()) {
+      return "password: must not be blank";
+    }
+    if (dto.getProfile() == null || dto.getProfile().getBirthDate() == null) {
+      return "profile.birthDate: must not be null";
+    }
+    try {
+      UserServiceImpl.validateAge(dto.getProfile().getBirthDate());
+    }
+    catch (ResponseStatusException e) {
+      return e.getReason();
+    }
+    if (!seenEmails.add(dto.getEmail())) {
+      return "This email address occurs more than once in the batch.";
+    }
+    return null;
+  }
+
+  private List<Item> registerChunk(List<Pending> chunk) {
+    List<Item> results = new ArrayList<>(chunk.size());
+    Set<String> existing = emailIndex.findTaken(chunk.stream()
+                                                     .map(p -> p.dto().getEmail())
+                                                     .toList());
+    List<Pending> accepted = new ArrayList<>(chunk.size());
+    for (Pending pending : chunk) {
+      if (existing.contains(pending.dto().getEmail())) {
+        results.add(Item.failed(pending.index(), pending.dto().getEmail(), EMAIL_TAKEN));
+      } else {
+        accepted.add(pending);
+      }
+    }
+    if (accepted.isEmpty()) {
+      return results;
+    }
+
+    List<String> hashes;
+    try {
+      hashes = passwordEncoder.encodeAll(accepted.stream()
+                                                 .map(p -> p.dto().getPassword())
+                                                 .toList());
+    }
+    catch (PasswordHashingRejectedException e) {
+      accepted.forEach(p -> results.add(Item.failed(p.index(), p.dto().getEmail(), e.getMessage())));
+      return results;
+    }
+    // passwords the saturated pool rejected fail on their own, the rest of the chunk is registered
+    List<Pending> hashed = new ArrayList<>(accepted.size());
+    List<String> hashedPasswords = new ArrayList<>(accepted.size());
+    for (int i = 0; i < accepted.size(); i++) {
+      if (hashes.get(i) == null) {
+        results.add(Item.failed(accepted.get(i).index(), accepted.get(i).dto().getEmail(), HASHING_REJECTED));
+      } else {
+        hashed.add(accepted.get(i));
+        hashedPasswords.add(hashes.get(i));
+      }
+    }
+    if (hashed.isEmpty()) {
+      return results;
+    }
+
+    Role userRole = roleSnapshot.defaultUserRole();
+    List<User> users = new ArrayList<>(hashed.size());
+    for (int i = 0; i < hashed.size(); i++) {
+      users.add(toUser(hashed.get(i).dto(), hashedPasswords.get(i), userRole));
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> persist(users));
+      for (int i = 0; i < hashed.size(); i++) {
+        results.add(Item.created(hashed.get(i).index(), users.get(i).getEmail(), users.get(i).getId()));
+      }
+    }
+    catch (RuntimeException chunkFailure) {
+      log.warn("Batch registration chunk failed, retrying {} items one by one", hashed.size(), chunkFailure);
+      for (int i = 0; i < hashed.size(); i++) {
+        // the failed persist attempt may already have assigned an id
+        User user = toUser(hashed.get(i).dto(), hashedPasswords.get(i), userRole);
+        results.add(registerSingle(hashed.get(i).index(), user));
+      }
+    }
+    return results;
+  }
+
+  private Item registerSingle(int index, User user) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> persist(List.of(user)));
+      return Item.created(index, user.getEmail(), user.getId());
+    }
+    // Flush failures surface untranslated, commit failures as DataIntegrityViolationException. Constraint names
+    // differ between databases, so a lookup tells an email registered in the meantime from other violations.
+    catch (DataIntegrityViolationException | PersistenceException e) {
+      return Item.failed(index, user.getEmail(),
+          userRepository.existsByEmail(user.getEmail()) ? EMAIL_TAKEN : "Data integrity violation.");
+    }
+  }
+
+  // persisted with hibernate.jdbc.batch_size and ordered inserts, one flush per chunk
+  private void persist(List<User> users) {
+    users.forEach(entityManager::persist);
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private User toUser(UserRegisterDTO dto, String passwordHash, Role userRole) {
+    User user = userMapper.fromUserRegisterDTO(dto);
+    user.setId(null);
+    user.setPassword(passwordHash);
+    user.setRoles(Set.of(userRole));
+    if (user.getProfile() != null) {
+      user.getProfile().setId(null);
+      user.getProfile().setUser(user);
+      if (user.getProfile().getProfileImageUrl() != null && user.getProfile().getProfileImageUrl().isBlank()) {
+        user.getProfile().setProfileImageUrl(null);
+      }
+    }
+    return user;
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.BulkDeactivateReport;
+import com.example.demo.domain.user.dto.BulkDeleteReport;
+import com.example.demo.domain.user.dto.BulkReactivateReport;
+import com.example.demo.domain.user.dto.BulkUserRequest;
+import java.util.UUID;
+
+public interface UserBulkService {
+
+  // The calling admin is never part of the selection
+  BulkDeleteReport delete(BulkUserRequest request, UUID callerId);
+
+  BulkDeactivateReport deactivate(BulkUserRequest request, UUID callerId);
+
+  BulkReactivateReport reactivate(BulkUserRequest request, UUID callerId);
+}
@@ -0,0 +1,162 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.RevokedUsers;
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.audit.AuditAction;
+import com.example.demo.domain.audit.AuditLog;
+import com.example.demo.domain.user.dto.BulkDeactivateReport;
+import com.example.demo.domain.user.dto.BulkDeleteReport;
+import com.example.demo.domain.user.dto.BulkReactivateReport;
+import com.example.demo.domain.user.dto.BulkUserRequest;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+// Set-based DELETE/UPDATE ... WHERE id IN (...) statements, one transaction per chunk, without loading
+// a single user. The statements bypass the entity listeners, so the in-memory indexes, the principal
+// cache, the revocation list of the stateless mode and the audit trail are told about the affected ids here. Chunks commit independently, a
+// failing chunk leaves the earlier ones applied.
+@Log4j2
+@Service
+public class UserBulkServiceImpl implements UserBulkService {
+
+  private static final String ENTITY_TYPE = "User";
+
+  private final UserRepository userRepository;
+  private final PrincipalCache principalCache;
+  private final RevokedUsers revokedUsers;
+  private final EmailIndex emailIndex;
+  private final NameIndex nameIndex;
+  private final UserDirectory userDirectory;
+  private final UserStatistics userStatistics;
+  private final AuditLog auditLog;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final int chunkSize;
+  private final int maxUsers;
+
+  @Autowired
+  public UserBulkServiceImpl(UserRepository userRepository, PrincipalCache principalCache,
+                             RevokedUsers revokedUsers, EmailIndex emailIndex, NameIndex nameIndex, UserDirectory userDirectory, UserStatistics userStatistics,
+                             AuditLog auditLog, PlatformTransactionManager transactionManager,
+                             @Value("${users.bulk.chunk-size:1000}") int chunkSize,
+                             @Value("${users.bulk.max-users:100000}") int maxUsers) {
+    this.userRepository = userRepository;
+    this.principalCache = principalCache;
+    this.revokedUsers = revokedUsers;
+    this.emailIndex = emailIndex;
+    this.nameIndex = nameIndex;
+    this.userDirectory = userDirectory;
+    this.userStatistics = userStatistics;
+    this.auditLog = auditLog;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.chunkSize = chunkSize;
+    this.maxUsers = maxUsers;
+  }
+
+  @Override
+  public BulkDeleteReport delete(BulkUserRequest request, UUID callerId) {
+    List<UUID> ids = select(request, callerId);
+    int users = 0;
+    int profiles = 0;
+    int roleLinks = 0;
+    for (int from = 0; from < ids.size(); from += chunkSize) {
+      List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+      int[] deleted = transactionTemplate.execute(status -> {
+        int[] counts = {userRepository.deleteProfilesByUserIds(chunk),
+                        userRepository.deleteRoleLinksByUserIds(chunk),
+                        userRepository.deleteAllByIds(chunk)};
+        principalCache.evictAll(chunk);
+        revokedUsers.deleted(chunk);
+        nameIndex.removedAll(chunk);
+        userDirectory.removedAll(chunk);
+        chunk.forEach(id -> auditLog.record(AuditAction.DELETED, ENTITY_TYPE, id));
+        return counts;
+      });
+      profiles += deleted[0];
+      roleLinks += deleted[1];
+      users += deleted[2];
+      // the filter can't forget emails, it only needs to know how many are gone
+      emailIndex.removedAll(deleted[2]);
+    }
+    if (users > 0) {
+      // the deleted birth dates and signup days are unknown here, a recount is two GROUP BY queries
+      userStatistics.reconcile();
+    }
+    log.info("Bulk delete of {} users removed {} users, {} profiles and {} role links", ids.size(), users, profiles,
+        roleLinks);
+    return new BulkDeleteReport(ids.size(), users, profiles, roleLinks);
+  }
+
+  @Override
+  public BulkDeactivateReport deactivate(BulkUserRequest request, UUID callerId) {
+    List<UUID> ids = select(request, callerId);
+    int deactivated = update(ids, userRepository::deactivateAllByIds, revokedUsers::deactivated);
+    log.info("Bulk deactivation of {} users deactivated {}", ids.size(), deactivated);
+    return new BulkDeactivateReport(ids.size(), deactivated);
+  }
+
+  @Override
+  public BulkReactivateReport reactivate(BulkUserRequest request, UUID callerId) {
+    List<UUID> ids = select(request, callerId);
+    int reactivated = update(ids, userRepository::reactivateAllByIds, revokedUsers::reactivated);
+    log.info("Bulk reactivation of {} users reactivated {}", ids.size(), reactivated);
+    return new BulkReactivateReport(ids.size(), reactivated);
+  }
+
+  // Names, emails and birth dates stay as they are, only the cached principals and the revocation list carry
+  // the active flag
+  private int update(List<UUID> ids, BiFunction<List<UUID>, Instant, Integer> statement,
+                     Consumer<List<UUID>> revocation) {
+    int updated = 0;
+    for (int from = 0; from < ids.size(); from += chunkSize) {
+      List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+      updated += transactionTemplate.execute(status -> {
+        int count = statement.apply(chunk, Instant.now());
+        principalCache.evictAll(chunk);
+        revocation.accept(chunk);
+        chunk.forEach(id -> auditLog.record(AuditAction.UPDATED, ENTITY_TYPE, id));
+        return count;
+      });
+    }
+    return updated;
+  }
+
+  private List<UUID> select(BulkUserRequest request, UUID callerId) {
+    boolean byIds = request.ids() != null;
+    boolean byFilter = request.filter() != null;
+    if (byIds == byFilter) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either ids or a filter are required");
+    }
+    if (byFilter && request.filter().isEmpty()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The filter needs at least one criterion");
+    }
+    Set<UUID> ids = new LinkedHashSet<>(byIds
+        ? request.ids()
+        : readOnlyTransaction.execute(status -> {
+          BulkUserRequest.Filter filter = request.filter();
+          return userRepository.findIds(UserSpecifications.adminSearch(filter.minAge(), filter.maxAge(),
+              filter.firstName(), filter.lastName()), maxUsers + 1);
+        }));
+    ids.remove(null);
+    ids.remove(callerId);
+    if (ids.size() > maxUsers) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxUsers + " users per request");
+    }
+    return List.copyOf(ids);
+  }
+}
@@ -1,18 +1,44 @@
 package com.example.demo.domain.user;
 
+import com.example.demo.core.generic.KeysetPage;
+import com.example.demo.core.generic.KeysetRequest;
+import com.example.demo.core.security.throttle.LoginThrottle;
+import com.example.demo.domain.user.dto.BatchRegistrationReport;
+import com.example.demo.domain.user.dto.BulkDeactivateReport;
+import com.example.demo.domain.user.dto.BulkDeleteReport;
+import com.example.demo.domain.user.dto.BulkReactivateReport;
+import com.example.demo.domain.user.dto.BulkUserRequest;
+import com.example.demo.domain.user.dto.EmailAvailabilityDTO;
 import com.example.demo.domain.user.dto.UserDTO;
 import com.example.demo.domain.user.dto.UserMapper;
+import com.example.demo.domain.user.dto.UserNameDTO;
+import com.example.demo.domain.user.dto.UserStatisticsDTO;
 import com.example.demo.domain.user.dto.UserRegisterDTO;
+import com.example.demo.domain.user.dto.UserSummaryDTO;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import com.example.demo.domain.userProfile.UserProfile;
 import com.example.demo.domain.userProfile.dto.UserProfileDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,6 +46,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.data.domain.Page;
 
@@ -29,28 +56,128 @@ import org.springframework.data.domain.Page;
 @RequestMapping("/user")
 public class UserController {
 
+  // Order of the admin search and of both cursor modes, the id is appended as tiebreaker
+  private static final List<String> SEARCH_ORDER = List.of("lastNameNumber", "lastName", "firstName");
+  private static final int MAX_AUTOCOMPLETE_RESULTS = 50;
+
   private final UserService userService;
   private final UserMapper userMapper;
   private final UserServiceImpl userServiceImpl;
+  private final UserExportService userExportService;
+  private final UserBatchRegistrationService userBatchRegistrationService;
+  private final UserPatchService userPatchService;
+  private final UserBulkService userBulkService;
+  private final LoginThrottle loginThrottle;
+  private final ObjectReader userRegisterReader;
 
   @Autowired
-  public UserController(UserService userService, UserMapper userMapper, UserServiceImpl userServiceImpl) {
+  public UserController(UserService userService, UserMapper userMapper, UserServiceImpl userServiceImpl,
+                        UserExportService userExportService,
+                        UserBatchRegistrationService userBatchRegistrationService, UserPatchService userPatchService,
+                        UserBulkService userBulkService, LoginThrottle loginThrottle, ObjectMapper objectMapper) {
     this.userService = userService;
     this.userMapper = userMapper;
     this.userServiceImpl = userServiceImpl;
+    this.userExportService = userExportService;
+    this.userBatchRegistrationService = userBatchRegistrationService;
+    this.userPatchService = userPatchService;
+    this.userBulkService = userBulkService;
+    this.loginThrottle = loginThrottle;
+    this.userRegisterReader = objectMapper.readerFor(UserRegisterDTO.class);
   }
 
+    // Conditional GET: an unchanged user is answered with 304 after a version lookup only
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> retrieveById(@PathVariable UUID id) {
+    public ResponseEntity<UserDTO> retrieveById(@PathVariable UUID id, WebRequest request) {
+        String etag = userService.findVersion(id).etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         User user = userService.findById(id);
-        return new ResponseEntity<>(userMapper.toDTO(user), HttpStatus.OK);
+        return ResponseEntity.ok().eTag(etag).body(userMapper.toDTO(user));
     }
 
     @GetMapping({"", "/"})
     @PreAuthorize("hasAuthority('USER_READ')")
-    public ResponseEntity<List<UserDTO>> retrieveAll() {
-        List<User> users = userService.findAll();
-        return new ResponseEntity<>(userMapper.toDTOs(users), HttpStatus.OK);
+    public ResponseEntity<List<UserSummaryDTO>> retrieveAll() {
+        return new ResponseEntity<>(userService.findAllSummaries(), HttpStatus.OK);
+    }
+
+    // Cursor paging mode, selected by the cursor parameter (empty for the first page)
+    @GetMapping(value = {"", "/"}, params = "cursor")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<KeysetPage<UserDTO>> retrieveAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean count
+    ) {
+        KeysetPage<User> users = userService.findAll(KeysetRequest.of(SEARCH_ORDER, cursor, size, count));
+        return new ResponseEntity<>(users.map(userMapper::toDTO), HttpStatus.OK);
+    }
+
+    // Streams all users as NDJSON (one user per line) without collecting them in memory
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public void exportAll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, 8192);
+        }
+        // closing the generator at the end of the export also finishes the gzip stream
+        userExportService.exportAsNdjson(updatedSince, out);
+    }
+
+    // gzip unless the client refuses it with q=0, either by name or through a wildcard (RFC 9110, 12.5.3)
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    }
+                    catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            }
+            else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        Double q = gzip != null ? gzip : wildcard;
+        return q != null && q > 0;
+    }
+
+    @GetMapping("/email-available")
+    public ResponseEntity<EmailAvailabilityDTO> isEmailAvailable(@RequestParam String email,
+                                                                 HttpServletRequest request) {
+        long retryAfter = loginThrottle.tryAcquireEmailLookup(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                 .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                                 .build();
+        }
+        return ResponseEntity.ok(new EmailAvailabilityDTO(email, userService.isEmailAvailable(email)));
     }
 
     @PostMapping("/register")
@@ -59,6 +186,21 @@ public class UserController {
         return new ResponseEntity<>(userMapper.toDTO(user), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/register/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('USER_CREATE')")
+    public ResponseEntity<BatchRegistrationReport> registerBatch(@RequestBody List<UserRegisterDTO> users) {
+        return ResponseEntity.ok(userBatchRegistrationService.registerAll(users.iterator()));
+    }
+
+    // NDJSON bodies are read item by item while the batch is processed
+    @PostMapping(value = "/register/batch", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('USER_CREATE')")
+    public ResponseEntity<BatchRegistrationReport> registerBatchNdjson(InputStream body) throws IOException {
+        try (MappingIterator<UserRegisterDTO> users = userRegisterReader.readValues(body)) {
+            return ResponseEntity.ok(userBatchRegistrationService.registerAll(users));
+        }
+    }
+
     @PostMapping("/registerUser")
     public ResponseEntity<UserDTO> registerWithoutPassword(@Valid @RequestBody UserDTO userDTO) {
         User user = userService.registerUser(userMapper.fromDTO(userDTO));
@@ -66,12 +208,30 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasAuthority('USER_MODIFY') && @userPermissionEvaluator.exampleEvaluator(authentication.principal.user,#id)")
+    @PreAuthorize("hasAuthority('USER_MODIFY') && @userPermissionEvaluator.isOwner(authentication.principal.user, #id)")
     public ResponseEntity<UserDTO> updateById(@PathVariable UUID id, @RequestBody UserDTO userDTO) {
         User user = userService.updateById(id, userMapper.fromDTO(userDTO));
         return new ResponseEntity<>(userMapper.toDTO(user), HttpStatus.OK);
     }
 
+    // JSON Merge Patch (RFC 7386), only the fields present in the body are changed
+    @PatchMapping(value = "/{id}", consumes = UserPatchService.MERGE_PATCH_JSON)
+    @PreAuthorize("hasAuthority('USER_MODIFY') && @userPermissionEvaluator.isOwner(authentication.principal.user, #id)")
+    public ResponseEntity<UserDTO> patchById(@PathVariable UUID id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        User user = userPatchService.patch(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(UserVersion.of(user).etag()).body(userMapper.toDTO(user));
+    }
+
+    @PatchMapping(value = "/me", consumes = UserPatchService.MERGE_PATCH_JSON)
+    @PreAuthorize("hasAuthority('USER_MODIFY')")
+    public ResponseEntity<UserDTO> patchOwn(@AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        User user = userPatchService.patch(principal.user().getId(), patch, ifMatch);
+        return ResponseEntity.ok().eTag(UserVersion.of(user).etag()).body(userMapper.toDTO(user));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('USER_DEACTIVATE')")
     public ResponseEntity<Void> deleteById(@PathVariable UUID id) {
@@ -79,6 +239,31 @@ public class UserController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Removes or deactivates many users at once (e.g. test or spam accounts) by ids or by an admin search filter
+    @PostMapping("/admin/bulk-delete")
+    @PreAuthorize("hasAuthority('USER_DEACTIVATE')")
+    public ResponseEntity<BulkDeleteReport> bulkDelete(@AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.delete(request, principal.user().getId()));
+    }
+
+    // Locks the users out at once, in the stateless mode other instances learn about it within
+    // jwt.revocationRefreshMillis
+    @PostMapping("/admin/bulk-deactivate")
+    @PreAuthorize("hasAuthority('USER_DEACTIVATE')")
+    public ResponseEntity<BulkDeactivateReport> bulkDeactivate(@AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.deactivate(request, principal.user().getId()));
+    }
+
+    // Undoes a bulk or single deactivation, the accounts keep their data while inactive
+    @PostMapping("/admin/bulk-reactivate")
+    @PreAuthorize("hasAuthority('USER_DEACTIVATE')")
+    public ResponseEntity<BulkReactivateReport> bulkReactivate(@AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.reactivate(request, principal.user().getId()));
+    }
+
     @RestController
     @RequestMapping("/roles")
     @PreAuthorize("hasAuthority('USER_READ')")
@@ -93,7 +278,7 @@ public class UserController {
 // This is an admin only function 
     @GetMapping("/admin/search")
     @PreAuthorize("hasAuthority('USER_READ')")
-    public ResponseEntity<Page<UserDTO>> filterUsers(
+    public ResponseEntity<Page<UserSummaryDTO>> filterUsers(
             @RequestParam(required = false) Integer minAge,
             @RequestParam(required = false) Integer maxAge,
             @RequestParam(required = false) String firstName,
@@ -104,10 +289,10 @@ public class UserController {
         Pageable pageable = PageRequest.of(
                 page,
                 size,
-                Sort.by(Sort.Direction.ASC, "lastName", "firstName"));
+                Sort.by(Sort.Direction.ASC, SEARCH_ORDER.toArray(String[]::new)));
 
-        Page<User> usersPage =
-                userService.getFilteredPaginatedAndSortedUsers(
+        Page<UserSummaryDTO> usersPage =
+                userService.getFilteredUserSummaries(
                         minAge,
                         maxAge,
                         firstName,
@@ -115,9 +300,48 @@ public class UserController {
                         pageable
                 );
 
-        Page<UserDTO> dtoPage = usersPage.map(userMapper::toDTO);
+        return ResponseEntity.ok(usersPage);
+    }
 
-        return ResponseEntity.ok(dtoPage);
+    // Fired on every keystroke of the admin search, answered from the in-memory NameIndex
+    @GetMapping("/admin/autocomplete")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<List<UserNameDTO>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_RESULTS));
+        return ResponseEntity.ok(userService.autocomplete(prefix, boundedLimit));
+    }
+
+    // Answered from counters, see UserStatistics
+    @GetMapping("/admin/stats")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<UserStatisticsDTO> statistics(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(userService.getStatistics(days));
+    }
+
+    @GetMapping(value = "/admin/search", params = "cursor")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<KeysetPage<UserDTO>> filterUsersByCursor(
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean count
+    ) {
+        KeysetPage<User> usersPage =
+                userService.getFilteredUsersAfter(
+                        minAge,
+                        maxAge,
+                        firstName,
+                        lastName,
+                        KeysetRequest.of(SEARCH_ORDER, cursor, size, count)
+                );
+
+        return ResponseEntity.ok(usersPage.map(userMapper::toDTO));
     }
 
   @PostMapping("/edit")
@@ -134,14 +358,20 @@ public class UserController {
 
     @GetMapping("/profile")
     @PreAuthorize("hasAuthority('USER_READ_OWN_PROFILE')")
-    public UserDTO getProfile(@AuthenticationPrincipal UserDetails userDetails) {
-        return userServiceImpl.getOwnProfile(userDetails.getUsername());
+    public ResponseEntity<UserDTO> getProfile(@AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        String etag = userServiceImpl.findVersionByEmail(userDetails.getUsername()).etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(userServiceImpl.getOwnProfile(userDetails.getUsername()));
     }
 
     @PutMapping("/editUser/{id}")
     @PreAuthorize("hasAuthority('USER_MODIFY')")
-    public UserDTO updateOwnProfile(@Valid @RequestBody UserDTO dto, @PathVariable UUID id) {
-        return userServiceImpl.updateOwnProfile(id, dto);
+    public ResponseEntity<UserDTO> updateOwnProfile(@Valid @RequestBody UserDTO dto, @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User user = userServiceImpl.updateOwnProfile(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(UserVersion.of(user).etag()).body(userMapper.toDTO(user));
     }
 
 // User can only delete own profile this is a user specific function
@@ -0,0 +1,7 @@
+package com.example.demo.domain.user;
+
+import java.time.LocalDate;
+
+// Number of users per birth date or signup day, used to reconcile the UserStatistics counters
+public record UserDateCount(LocalDate date, Long users) {
+}
@@ -5,16 +5,21 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-public record UserDetailsImpl(User user) implements UserDetails {
+// The authorities are resolved once when the principal is created, usually as a shared list from RoleSnapshot
+public record UserDetailsImpl(User user, Collection<? extends GrantedAuthority> authorities) implements UserDetails {
+
+  public UserDetailsImpl(User user) {
+    this(user, user.getRoles()
+                   .stream()
+                   .flatMap(r -> r.getAuthorities()
+                                  .stream())
+                   .map(a -> new SimpleGrantedAuthority(a.getName()))
+                   .toList());
+  }
 
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    return user.getRoles()
-               .stream()
-               .flatMap(r -> r.getAuthorities()
-                              .stream())
-               .map(a -> new SimpleGrantedAuthority(a.getName()))
-               .toList();
+    return authorities;
   }
 
   @Override
@@ -44,6 +49,6 @@ public record UserDetailsImpl(User user) implements UserDetails {
 
   @Override
   public boolean isEnabled() {
-    return true;
+    return user.isActive();
   }
 }
@@ -0,0 +1,180 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.generic.AbstractRebuildableIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Optional read model of the admin search (users.directory.enabled): a columnar snapshot of all users,
+// rebuilt periodically and patched by UserDirectoryListener in between. A search is answered with the ids
+// of the requested page, only the summaries of those users are then loaded. Searches with another sort order, and all
+// searches while the snapshot is missing, too old or too heavily patched, take the database path.
+// Names are ordered by their lower case form, the database's collation may order ties of case differently.
+@Log4j2
+@Component
+public class UserDirectory extends AbstractRebuildableIndex<UserDirectorySnapshot> implements MeterBinder {
+
+  private static final List<Sort.Order> DIRECTORY_ORDER = List.of(Sort.Order.asc("lastNameNumber"),
+                                                                  Sort.Order.asc("lastName"),
+                                                                  Sort.Order.asc("firstName"));
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final long maxAgeMillis;
+  private final int maxPatches;
+
+  private final LongAdder snapshotSearches = new LongAdder();
+  private final LongAdder databaseSearches = new LongAdder();
+
+  public UserDirectory(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                       UserDirectoryProperties properties) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = properties.isEnabled();
+    this.maxAgeMillis = properties.getMaxAgeMillis();
+    this.maxPatches = properties.getMaxPatches();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${users.directory.rebuild-interval-millis:60000}",
+             initialDelayString = "${users.directory.rebuild-interval-millis:60000}")
+  public void refresh() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  public void rebuild() {
+    long start = System.nanoTime();
+    try {
+      UserDirectorySnapshot next = rebuild(() -> {
+        List<UserDirectoryRow> rows = readOnlyTransaction.execute(status -> {
+          try (Stream<UserDirectoryRow> stream = userRepository.streamDirectoryRows()) {
+            return stream.toList();
+          }
+        });
+        return UserDirectorySnapshot.build(rows, System.currentTimeMillis());
+      });
+      if (next != null) {
+        log.info("User directory built from {} users in {} ms", next.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      }
+    }
+    catch (RuntimeException e) {
+      log.warn("Could not rebuild the user directory, searches use the database", e);
+    }
+  }
+
+  // Ids of the requested page, empty if the search has to go to the database
+  public Optional<Page<UUID>> findPage(Integer minAge, Integer maxAge, String firstName, String lastName,
+                                       Pageable pageable) {
+    UserDirectorySnapshot snapshot = current();
+    if (!enabled || snapshot == null || isStale(snapshot) || pageable.isUnpaged()
+        || !isDirectoryOrder(pageable.getSort())) {
+      databaseSearches.increment();
+      return Optional.empty();
+    }
+    snapshotSearches.increment();
+    UserDirectorySnapshot.Result result = snapshot.scan(query(minAge, maxAge, firstName, lastName, LocalDate.now()),
+        pageable.getOffset(), pageable.getPageSize());
+    return Optional.of(new PageImpl<>(result.ids(), pageable, result.total()));
+  }
+
+  private boolean isStale(UserDirectorySnapshot snapshot) {
+    return snapshot.patches() > maxPatches || System.currentTimeMillis() - snapshot.builtAt() > maxAgeMillis;
+  }
+
+  // The snapshot is sorted in the admin search order, the id tiebreaker is implied
+  private static boolean isDirectoryOrder(Sort sort) {
+    Iterator<Sort.Order> orders = sort.iterator();
+    for (Sort.Order expected : DIRECTORY_ORDER) {
+      if (!orders.hasNext() || !expected.equals(orders.next())) {
+        return false;
+      }
+    }
+    return !orders.hasNext() || orders.next().equals(Sort.Order.asc("id")) && !orders.hasNext();
+  }
+
+  // Same bounds as UserSpecifications.ageBetween, users without a birth date only match without age filter
+  static UserDirectorySnapshot.Query query(Integer minAge, Integer maxAge, String firstName, String lastName,
+                                           LocalDate today) {
+    int minBirthDay = UserDirectorySnapshot.NO_BIRTH_DATE;
+    int maxBirthDay = Integer.MAX_VALUE;
+    if (minAge != null) {
+      minBirthDay = UserDirectorySnapshot.NO_BIRTH_DATE + 1;
+      maxBirthDay = (int) today.minusYears(minAge).toEpochDay();
+    }
+    if (maxAge != null) {
+      minBirthDay = (int) today.minusYears(maxAge + 1L).toEpochDay() + 1;
+    }
+    return new UserDirectorySnapshot.Query(minBirthDay, maxBirthDay, prefix(firstName), prefix(lastName));
+  }
+
+  private static String prefix(String value) {
+    return value == null || value.isBlank() ? null : UserDirectorySnapshot.lower(value.trim());
+  }
+
+  void changed(User user) {
+    if (enabled) {
+      UserDirectoryRow row = UserDirectoryRow.of(user);
+      afterCommit(snapshot -> snapshot.upsert(row));
+    }
+  }
+
+  void removed(UUID id) {
+    if (enabled) {
+      afterCommit(snapshot -> snapshot.remove(id));
+    }
+  }
+
+  void removedAll(Collection<UUID> ids) {
+    if (enabled) {
+      List<UUID> removed = List.copyOf(ids);
+      afterCommit(snapshot -> removed.forEach(snapshot::remove));
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("users.directory.searches", snapshotSearches, LongAdder::sum)
+                   .tag("source", "snapshot")
+                   .register(registry);
+    FunctionCounter.builder("users.directory.searches", databaseSearches, LongAdder::sum)
+                   .tag("source", "database")
+                   .register(registry);
+    Gauge.builder("users.directory.patches", this, directory -> {
+           UserDirectorySnapshot snapshot = directory.current();
+           return snapshot == null ? 0 : snapshot.patches();
+         })
+         .register(registry);
+  }
+}
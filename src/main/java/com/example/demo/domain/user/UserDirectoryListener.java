@@ -0,0 +1,34 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Patches the UserDirectory snapshot, registered on User and on UserProfile for birth date changes
+public class UserDirectoryListener {
+
+  private final ObjectProvider<UserDirectory> userDirectory;
+
+  public UserDirectoryListener(ObjectProvider<UserDirectory> userDirectory) {
+    this.userDirectory = userDirectory;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void changed(Object entity) {
+    User user = entity instanceof UserProfile profile ? profile.getUser() : (User) entity;
+    if (user != null) {
+      userDirectory.ifAvailable(directory -> directory.changed(user));
+    }
+  }
+
+  // a profile is only removed together with its user
+  @PostRemove
+  void removed(Object entity) {
+    if (entity instanceof User user) {
+      userDirectory.ifAvailable(directory -> directory.removed(user.getId()));
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.domain.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("users.directory")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserDirectoryProperties {
+
+  private boolean enabled = false;
+  private long rebuildIntervalMillis = 60_000;
+  // older snapshots (e.g. when rebuilds fail) are not used anymore
+  private long maxAgeMillis = 300_000;
+  // changes since the last rebuild are merged into every scan, beyond this the database is faster
+  private int maxPatches = 2048;
+
+}
@@ -0,0 +1,13 @@
+package com.example.demo.domain.user;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// The columns of a user the directory snapshot filters and sorts on
+public record UserDirectoryRow(UUID id, String firstName, String lastName, long lastNameNumber, LocalDate birthDate) {
+
+  static UserDirectoryRow of(User user) {
+    return new UserDirectoryRow(user.getId(), user.getFirstName(), user.getLastName(), user.getLastNameNumber(),
+                                user.getProfile() == null ? null : user.getProfile().getBirthDate());
+  }
+}
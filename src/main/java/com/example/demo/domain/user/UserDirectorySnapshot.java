@@ -0,0 +1,403 @@
+package com.example.demo.domain.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+// Column store of the admin search fields, one array per column and one row per user. Rows are sorted in
+// the admin search order (last name number, last name, first name, id) with names compared in lower case,
+// so a page is the n-th to m-th matching row. Names are dictionary encoded against sorted dictionaries,
+// a name prefix is therefore a range of ordinals and every filter is an int comparison.
+// Changes after the build are patched in: the old row is hidden by a tombstone bit and the new state is kept
+// in a small sorted overlay that is merged into every scan. Patches are applied under UserDirectory's lock,
+// scans run concurrently and see the tombstones through the volatile overlay.
+final class UserDirectorySnapshot {
+
+  static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+  // rows per fork-join task, smaller snapshots are scanned on the calling thread
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  // ids are compared unsigned like the uuid columns of Postgres and H2, not like UUID.compareTo
+  private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::lastNameNumber)
+                                                           .thenComparing(Entry::lastName)
+                                                           .thenComparing(Entry::firstName)
+                                                           .thenComparing(Entry::idMost, Long::compareUnsigned)
+                                                           .thenComparing(Entry::idLeast, Long::compareUnsigned);
+
+  private final int size;
+  private final int chunkSize;
+  private final long[] idMost;
+  private final long[] idLeast;
+  private final long[] lastNameNumbers;
+  private final int[] birthDays;
+  private final int[] firstNames;
+  private final int[] lastNames;
+  private final String[] firstNameDictionary;
+  private final String[] lastNameDictionary;
+  // row numbers sorted by id, finds the row of a patched user
+  private final int[] rowsById;
+  private final long builtAt;
+
+  private final long[] tombstones;
+  private volatile Entry[] overlay = new Entry[0];
+
+  // The state of one user, names in lower case
+  private record Entry(long idMost, long idLeast, long lastNameNumber, String lastName, String firstName,
+                       int birthDay) {
+
+    static Entry of(UserDirectoryRow row) {
+      return new Entry(row.id().getMostSignificantBits(), row.id().getLeastSignificantBits(), row.lastNameNumber(),
+                       lower(row.lastName()), lower(row.firstName()),
+                       row.birthDate() == null ? NO_BIRTH_DATE : (int) row.birthDate().toEpochDay());
+    }
+  }
+
+  // Filters of a scan, name prefixes are in lower case and null or empty when not filtered
+  record Query(int minBirthDay, int maxBirthDay, String firstNamePrefix, String lastNamePrefix) {
+  }
+
+  record Result(List<UUID> ids, long total) {
+  }
+
+  // The query translated to column ranges, upper bounds of the ordinals are exclusive
+  private record Ranges(int minBirthDay, int maxBirthDay, int firstFrom, int firstTo, int lastFrom, int lastTo) {
+  }
+
+  private UserDirectorySnapshot(List<Entry> entries, long builtAt, int chunkSize) {
+    this.size = entries.size();
+    this.chunkSize = chunkSize;
+    this.builtAt = builtAt;
+    this.idMost = new long[size];
+    this.idLeast = new long[size];
+    this.lastNameNumbers = new long[size];
+    this.birthDays = new int[size];
+    this.firstNames = new int[size];
+    this.lastNames = new int[size];
+    this.tombstones = new long[(size + 63) >>> 6];
+    this.firstNameDictionary = entries.stream().map(Entry::firstName).distinct().sorted().toArray(String[]::new);
+    this.lastNameDictionary = entries.stream().map(Entry::lastName).distinct().sorted().toArray(String[]::new);
+    for (int row = 0; row < size; row++) {
+      Entry entry = entries.get(row);
+      idMost[row] = entry.idMost();
+      idLeast[row] = entry.idLeast();
+      lastNameNumbers[row] = entry.lastNameNumber();
+      birthDays[row] = entry.birthDay();
+      firstNames[row] = Arrays.binarySearch(firstNameDictionary, entry.firstName());
+      lastNames[row] = Arrays.binarySearch(lastNameDictionary, entry.lastName());
+    }
+    this.rowsById = sortedById();
+  }
+
+  static UserDirectorySnapshot build(List<UserDirectoryRow> rows, long builtAt) {
+    return build(rows, builtAt, CHUNK_SIZE);
+  }
+
+  // Tests use small chunks to cover the chunk boundaries
+  static UserDirectorySnapshot build(List<UserDirectoryRow> rows, long builtAt, int chunkSize) {
+    List<Entry> entries = new ArrayList<>(rows.size());
+    rows.forEach(row -> entries.add(Entry.of(row)));
+    entries.sort(ORDER);
+    return new UserDirectorySnapshot(entries, builtAt, chunkSize);
+  }
+
+  private int[] sortedById() {
+    return IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(row -> idMost[row])
+                                      .thenComparingLong(row -> idLeast[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+  }
+
+  int size() {
+    return size;
+  }
+
+  int patches() {
+    return overlay.length;
+  }
+
+  long builtAt() {
+    return builtAt;
+  }
+
+  // Guarded by UserDirectory
+  void upsert(UserDirectoryRow row) {
+    hide(row.id());
+    Entry entry = Entry.of(row);
+    Entry[] current = withoutOverlay(row.id());
+    int position = Arrays.binarySearch(current, entry, ORDER);
+    int insertion = position >= 0 ? position : -position - 1;
+    Entry[] next = new Entry[current.length + 1];
+    System.arraycopy(current, 0, next, 0, insertion);
+    next[insertion] = entry;
+    System.arraycopy(current, insertion, next, insertion + 1, current.length - insertion);
+    overlay = next;
+  }
+
+  // Guarded by UserDirectory
+  void remove(UUID id) {
+    hide(id);
+    overlay = withoutOverlay(id);
+  }
+
+  private void hide(UUID id) {
+    int row = rowOf(id);
+    if (row >= 0) {
+      tombstones[row >>> 6] |= 1L << row;
+    }
+  }
+
+  private Entry[] withoutOverlay(UUID id) {
+    Entry[] current = overlay;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].idMost() == id.getMostSignificantBits() && current[i].idLeast() == id.getLeastSignificantBits()) {
+        Entry[] next = new Entry[current.length - 1];
+        System.arraycopy(current, 0, next, 0, i);
+        System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+        return next;
+      }
+    }
+    return current;
+  }
+
+  private int rowOf(UUID id) {
+    long most = id.getMostSignificantBits();
+    long least = id.getLeastSignificantBits();
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int row = rowsById[middle];
+      int comparison = most != idMost[row] ? Long.compare(idMost[row], most) : Long.compare(idLeast[row], least);
+      if (comparison < 0) {
+        low = middle + 1;
+      }
+      else if (comparison > 0) {
+        high = middle - 1;
+      }
+      else {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  // Ids of the matches offset to offset + limit in admin search order, plus the total number of matches
+  Result scan(Query query, long offset, int limit) {
+    // read first, makes the tombstones of all patches published with it visible
+    Entry[] patched = overlay;
+    Ranges ranges = new Ranges(query.minBirthDay(), query.maxBirthDay(),
+                               prefixFrom(firstNameDictionary, query.firstNamePrefix()),
+                               prefixTo(firstNameDictionary, query.firstNamePrefix()),
+                               prefixFrom(lastNameDictionary, query.lastNamePrefix()),
+                               prefixTo(lastNameDictionary, query.lastNamePrefix()));
+    int[] chunkCounts = countChunks(ranges);
+    long baseTotal = 0;
+    for (int count : chunkCounts) {
+      baseTotal += count;
+    }
+
+    // merged position of each matching overlay entry: its index plus the matching rows sorted before it
+    Entry[] matching = new Entry[patched.length];
+    long[] positions = new long[patched.length];
+    int matchingCount = 0;
+    for (Entry entry : patched) {
+      if (matches(entry, query)) {
+        positions[matchingCount] = matchingCount + rank(firstRowNotBefore(entry), chunkCounts, ranges);
+        matching[matchingCount++] = entry;
+      }
+    }
+    long total = baseTotal + matchingCount;
+
+    List<UUID> ids = new ArrayList<>(limit);
+    int next = 0;
+    while (next < matchingCount && positions[next] < offset) {
+      next++;
+    }
+    int row = rowOfRank(offset - next, chunkCounts, ranges);
+    if (row >= size && next >= matchingCount) {
+      // the page lies behind the last match, or behind rows hidden since they were counted
+      return new Result(List.of(), total);
+    }
+    for (long position = offset; position < total && ids.size() < limit; position++) {
+      if (next < matchingCount && positions[next] == position) {
+        ids.add(new UUID(matching[next].idMost(), matching[next].idLeast()));
+        next++;
+      }
+      else {
+        // a row hidden by a concurrent patch can end the rows early
+        if (row >= size) {
+          break;
+        }
+        ids.add(new UUID(idMost[row], idLeast[row]));
+        row = nextMatch(row + 1, ranges);
+      }
+    }
+    return new Result(ids, total);
+  }
+
+  private boolean matches(int row, Ranges ranges) {
+    int birthDay = birthDays[row];
+    int firstName = firstNames[row];
+    int lastName = lastNames[row];
+    return birthDay >= ranges.minBirthDay() && birthDay <= ranges.maxBirthDay()
+           && firstName >= ranges.firstFrom() && firstName < ranges.firstTo()
+           && lastName >= ranges.lastFrom() && lastName < ranges.lastTo()
+           && (tombstones[row >>> 6] & (1L << row)) == 0;
+  }
+
+  private static boolean matches(Entry entry, Query query) {
+    return entry.birthDay() >= query.minBirthDay() && entry.birthDay() <= query.maxBirthDay()
+           && (isEmpty(query.firstNamePrefix()) || entry.firstName().startsWith(query.firstNamePrefix()))
+           && (isEmpty(query.lastNamePrefix()) || entry.lastName().startsWith(query.lastNamePrefix()));
+  }
+
+  private int count(int from, int to, Ranges ranges) {
+    int count = 0;
+    for (int row = from; row < to; row++) {
+      if (matches(row, ranges)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private int[] countChunks(Ranges ranges) {
+    int chunks = (size + chunkSize - 1) / chunkSize;
+    int[] counts = new int[chunks];
+    if (chunks == 1) {
+      counts[0] = count(0, size, ranges);
+    }
+    else if (chunks > 1) {
+      ForkJoinPool.commonPool().invoke(new CountTask(ranges, counts, 0, chunks));
+    }
+    return counts;
+  }
+
+  private final class CountTask extends RecursiveAction {
+
+    private final Ranges ranges;
+    private final int[] counts;
+    private final int fromChunk;
+    private final int toChunk;
+
+    CountTask(Ranges ranges, int[] counts, int fromChunk, int toChunk) {
+      this.ranges = ranges;
+      this.counts = counts;
+      this.fromChunk = fromChunk;
+      this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (toChunk - fromChunk == 1) {
+        counts[fromChunk] = count(fromChunk * chunkSize, Math.min(size, (fromChunk + 1) * chunkSize), ranges);
+        return;
+      }
+      int middle = (fromChunk + toChunk) >>> 1;
+      invokeAll(new CountTask(ranges, counts, fromChunk, middle), new CountTask(ranges, counts, middle, toChunk));
+    }
+  }
+
+  // Number of matching rows before the given row
+  private long rank(int row, int[] chunkCounts, Ranges ranges) {
+    int chunk = Math.min(row / chunkSize, chunkCounts.length);
+    long rank = 0;
+    for (int i = 0; i < chunk; i++) {
+      rank += chunkCounts[i];
+    }
+    return rank + count(chunk * chunkSize, row, ranges);
+  }
+
+  // The row of the rank-th match (0-based), size if there are fewer matches. The counts can be higher than the
+  // matches when a concurrent patch hid a row after they were taken.
+  private int rowOfRank(long rank, int[] chunkCounts, Ranges ranges) {
+    long remaining = rank;
+    int chunk = 0;
+    while (chunk < chunkCounts.length && remaining >= chunkCounts[chunk]) {
+      remaining -= chunkCounts[chunk];
+      chunk++;
+    }
+    if (chunk == chunkCounts.length) {
+      return size;
+    }
+    for (int row = chunk * chunkSize; row < size; row++) {
+      if (matches(row, ranges)) {
+        if (remaining == 0) {
+          return row;
+        }
+        remaining--;
+      }
+    }
+    return size;
+  }
+
+  private int nextMatch(int from, Ranges ranges) {
+    int row = from;
+    while (row < size && !matches(row, ranges)) {
+      row++;
+    }
+    return row;
+  }
+
+  private int firstRowNotBefore(Entry entry) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compare(middle, entry) < 0) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compare(int row, Entry entry) {
+    int comparison = Long.compare(lastNameNumbers[row], entry.lastNameNumber());
+    if (comparison == 0) {
+      comparison = lastNameDictionary[lastNames[row]].compareTo(entry.lastName());
+    }
+    if (comparison == 0) {
+      comparison = firstNameDictionary[firstNames[row]].compareTo(entry.firstName());
+    }
+    if (comparison == 0) {
+      comparison = Long.compareUnsigned(idMost[row], entry.idMost());
+    }
+    if (comparison == 0) {
+      comparison = Long.compareUnsigned(idLeast[row], entry.idLeast());
+    }
+    return comparison;
+  }
+
+  // All names starting with a prefix form a contiguous range of the sorted dictionary
+  private static int prefixFrom(String[] dictionary, String prefix) {
+    return isEmpty(prefix) ? 0 : insertionPoint(dictionary, prefix);
+  }
+
+  private static int prefixTo(String[] dictionary, String prefix) {
+    return isEmpty(prefix) ? dictionary.length : insertionPoint(dictionary, prefix + Character.MAX_VALUE);
+  }
+
+  private static int insertionPoint(String[] dictionary, String value) {
+    int position = Arrays.binarySearch(dictionary, value);
+    return position >= 0 ? position : -position - 1;
+  }
+
+  private static boolean isEmpty(String value) {
+    return value == null || value.isEmpty();
+  }
+
+  static String lower(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.domain.user;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Reports new and changed emails to the EmailIndex. The index is optional so that slices without it
+// (e.g. @DataJpaTest) still work. Users remember the email they were loaded with, so only inserts and real
+// email changes add to the filter.
+public class UserEmailListener {
+
+  private final ObjectProvider<EmailIndex> emailIndex;
+
+  public UserEmailListener(ObjectProvider<EmailIndex> emailIndex) {
+    this.emailIndex = emailIndex;
+  }
+
+  @PostLoad
+  void loaded(User user) {
+    user.setPersistedEmail(user.getEmail());
+  }
+
+  @PostPersist
+  void persisted(User user) {
+    emailChanged(user, null);
+  }
+
+  @PostUpdate
+  void updated(User user) {
+    emailChanged(user, user.getPersistedEmail());
+  }
+
+  @PostRemove
+  void removed(User user) {
+    emailIndex.ifAvailable(index -> index.removed(user.getEmail()));
+  }
+
+  private void emailChanged(User user, String previous) {
+    String next = user.getEmail();
+    user.setPersistedEmail(next);
+    if (next == null || previous != null && EmailIndex.normalize(previous).equals(EmailIndex.normalize(next))) {
+      return;
+    }
+    emailIndex.ifAvailable(index -> {
+      index.added(next);
+      if (previous != null) {
+        index.removed(previous);
+      }
+    });
+  }
+}
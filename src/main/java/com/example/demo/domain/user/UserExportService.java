@@ -0,0 +1,11 @@
+package com.example.demo.domain.user;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface UserExportService {
+
+  // Writes one JSON document per user and line, returns the number of exported users
+  long exportAsNdjson(Instant updatedSince, OutputStream out) throws IOException;
+}
@@ -0,0 +1,79 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserDTO;
+import com.example.demo.domain.user.dto.UserMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+  // Detach the exported users regularly so the persistence context does not grow with the table
+  private static final int CLEAR_INTERVAL = Integer.parseInt(UserRepository.EXPORT_FETCH_SIZE);
+  // Users are mapped in groups of the @BatchSize of their roles, a streamed user mapped on its own would
+  // load its roles alone
+  private static final int MAPPING_CHUNK = 50;
+
+  private final UserRepository userRepository;
+  private final UserMapper userMapper;
+  private final EntityManager entityManager;
+  private final ObjectWriter writer;
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public UserExportServiceImpl(UserRepository userRepository, UserMapper userMapper, EntityManager entityManager,
+                               ObjectMapper objectMapper) {
+    this.userRepository = userRepository;
+    this.userMapper = userMapper;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+    this.writer = objectMapper.writerFor(UserDTO.class)
+                              .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long exportAsNdjson(Instant updatedSince, OutputStream out) throws IOException {
+    long count = 0;
+    try (Stream<User> users = updatedSince == null
+        ? userRepository.streamAll()
+        : userRepository.streamUpdatedSince(updatedSince);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      Iterator<User> iterator = users.iterator();
+      List<User> chunk = new ArrayList<>(MAPPING_CHUNK);
+      long sinceClear = 0;
+      while (iterator.hasNext()) {
+        chunk.add(iterator.next());
+        if (chunk.size() < MAPPING_CHUNK && iterator.hasNext()) {
+          continue;
+        }
+        for (User user : chunk) {
+          writer.writeValue(generator, userMapper.toDTO(user));
+          generator.writeRaw('\n');
+        }
+        count += chunk.size();
+        sinceClear += chunk.size();
+        chunk.clear();
+        if (sinceClear >= CLEAR_INTERVAL) {
+          generator.flush();
+          entityManager.clear();
+          sinceClear = 0;
+        }
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.domain.user;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Reports name changes and deletions to the NameIndex
+public class UserNameListener {
+
+  private final ObjectProvider<NameIndex> nameIndex;
+
+  public UserNameListener(ObjectProvider<NameIndex> nameIndex) {
+    this.nameIndex = nameIndex;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void updated(User user) {
+    nameIndex.ifAvailable(index -> index.updated(user));
+  }
+
+  @PostRemove
+  void removed(User user) {
+    nameIndex.ifAvailable(index -> index.removed(user.getId()));
+  }
+}
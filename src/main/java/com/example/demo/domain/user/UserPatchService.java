@@ -0,0 +1,13 @@
+package com.example.demo.domain.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.UUID;
+
+public interface UserPatchService {
+
+  String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+  // Applies an RFC 7386 merge patch, ifMatch is the optional If-Match header
+  User patch(UUID id, JsonNode patch, String ifMatch) throws IOException;
+}
@@ -0,0 +1,107 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.user.dto.UserMapper;
+import com.example.demo.domain.user.dto.UserPatchDTO;
+import com.example.demo.domain.userProfile.UserProfile;
+import com.example.demo.domain.userProfile.dto.UserProfileDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+// One load, the patch is merged into a DTO of the current state and copied back onto the managed user.
+// Unchanged values are not dirty, so with @DynamicUpdate the flush only writes the patched columns.
+@Service
+public class UserPatchServiceImpl implements UserPatchService {
+
+  private final UserRepository userRepository;
+  private final UserMapper userMapper;
+  private final Validator validator;
+  private final EmailIndex emailIndex;
+  private final PrincipalCache principalCache;
+  private final ObjectReader patchReader;
+
+  @Autowired
+  public UserPatchServiceImpl(UserRepository userRepository, UserMapper userMapper, Validator validator,
+                              EmailIndex emailIndex, PrincipalCache principalCache, ObjectMapper objectMapper) {
+    this.userRepository = userRepository;
+    this.userMapper = userMapper;
+    this.validator = validator;
+    this.emailIndex = emailIndex;
+    this.principalCache = principalCache;
+    this.patchReader = objectMapper.readerFor(UserPatchDTO.class)
+                                   .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  @Override
+  @Transactional
+  public User patch(UUID id, JsonNode patch, String ifMatch) throws IOException {
+    if (patch == null || !patch.isObject()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A merge patch must be a JSON object");
+    }
+    User user = userRepository.findById(id).orElseThrow(NoSuchElementException::new);
+    if (ifMatch != null && !UserVersion.of(user).matches(ifMatch)) {
+      throw new OptimisticLockingFailureException("User " + id + " has been modified in the meantime");
+    }
+
+    UserPatchDTO patched = patchReader.withValueToUpdate(userMapper.toPatchDTO(user))
+                                      .readValue(patch);
+    Set<ConstraintViolation<UserPatchDTO>> violations = validator.validate(patched);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+    apply(patched, user);
+
+    userRepository.flush();
+    principalCache.evict(id);
+    return user;
+  }
+
+  private void apply(UserPatchDTO patched, User user) {
+    if (!Objects.equals(user.getEmail(), patched.getEmail()) && emailIndex.isTaken(patched.getEmail())) {
+      throw new EmailAlreadyInUseException(patched.getEmail());
+    }
+    user.setFirstName(patched.getFirstName());
+    user.setLastName(patched.getLastName());
+    user.setEmail(patched.getEmail());
+
+    UserProfileDTO patchedProfile = patched.getProfile();
+    if (patchedProfile == null) {
+      if (user.getProfile() != null) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The profile cannot be removed");
+      }
+      return;
+    }
+    UserProfile profile = user.getProfile();
+    if (profile == null) {
+      profile = new UserProfile();
+      profile.setUser(user);
+      user.setProfile(profile);
+    }
+    if (!Objects.equals(profile.getBirthDate(), patchedProfile.getBirthDate())) {
+      if (patchedProfile.getBirthDate() == null) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The birth date cannot be removed");
+      }
+      UserServiceImpl.validateAge(patchedProfile.getBirthDate());
+    }
+    profile.setAddress(patchedProfile.getAddress());
+    profile.setBirthDate(patchedProfile.getBirthDate());
+    String imageUrl = patchedProfile.getProfileImageUrl();
+    profile.setProfileImageUrl(imageUrl != null && imageUrl.isBlank() ? null : imageUrl);
+  }
+}
@@ -1,15 +1,151 @@
 package com.example.demo.domain.user;
 
 import com.example.demo.core.generic.AbstractRepository;
+import com.example.demo.domain.user.dto.UserNameDTO;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends AbstractRepository<User> {
+public interface UserRepository extends AbstractRepository<User>, UserSummaryRepository {
+
+  String EXPORT_FETCH_SIZE = "500";
+
+  // Authentication and own profile
+  @EntityGraph(User.GRAPH_DETAIL)
   Optional<User> findByEmail(String email);
 
+  @Override
+  @EntityGraph(User.GRAPH_DETAIL)
+  Optional<User> findById(UUID id);
+
+  // List views, roles are batch loaded only if the caller touches them
+  @Override
+  @EntityGraph(User.GRAPH_LIST)
+  List<User> findAll();
+
+  @Override
+  @EntityGraph(User.GRAPH_LIST)
+  Page<User> findAll(Pageable pageable);
+
+  @Override
+  @EntityGraph(User.GRAPH_LIST)
+  List<User> findAllById(Iterable<UUID> ids);
+
+  @Override
+  @EntityGraph(User.GRAPH_LIST)
+  Page<User> findAll(Specification<User> spec, Pageable pageable);
+
+  @Override
+  @EntityGraph(User.GRAPH_LIST)
+  List<User> findAll(Specification<User> spec, Sort sort, int limit);
+
+  boolean existsByEmail(String email);
+
+  // Version lookups answer conditional requests without loading the user
+  @Query("SELECT new com.example.demo.domain.user.UserVersion(u.id, u.version, p.version) "
+         + "FROM User u LEFT JOIN u.profile p WHERE u.id = :id")
+  Optional<UserVersion> findVersionById(@Param("id") UUID id);
+
+  @Query("SELECT new com.example.demo.domain.user.UserVersion(u.id, u.version, p.version) "
+         + "FROM User u LEFT JOIN u.profile p WHERE u.email = :email")
+  Optional<UserVersion> findVersionByEmail(@Param("email") String email);
+
+  @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+  Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  // Bulk operations, set-based and without loading the users
+  @Modifying
+  @Query("DELETE FROM UserProfile p WHERE p.user.id IN :ids")
+  int deleteProfilesByUserIds(@Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query(value = "DELETE FROM users_role WHERE users_id IN (:ids)", nativeQuery = true)
+  int deleteRoleLinksByUserIds(@Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query("DELETE FROM User u WHERE u.id IN :ids")
+  int deleteAllByIds(@Param("ids") Collection<UUID> ids);
+
+  // The version is bumped so that ETags handed out before stop matching
+  @Modifying
+  @Query("UPDATE User u SET u.active = false, u.version = u.version + 1, u.updatedAt = :now "
+         + "WHERE u.id IN :ids AND u.active = true")
+  int deactivateAllByIds(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+  @Modifying
+  @Query("UPDATE User u SET u.active = true, u.version = u.version + 1, u.updatedAt = :now "
+         + "WHERE u.id IN :ids AND u.active = false")
+  int reactivateAllByIds(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+  // Deactivations within the lifetime of a token, for the revocation list of the stateless mode
+  @Query("SELECT u.id FROM User u WHERE u.active = false AND u.updatedAt >= :since")
+  List<UUID> findInactiveIdsUpdatedSince(@Param("since") Instant since);
+
+  // Forward-only streams for the export, have to be consumed inside a transaction
+  @EntityGraph(User.GRAPH_LIST)
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT u FROM User u")
+  Stream<User> streamAll();
+
+  @EntityGraph(User.GRAPH_LIST)
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  // a profile change leaves users.updated_at alone, so both timestamps are checked
+  @Query("SELECT u FROM User u LEFT JOIN u.profile p WHERE u.updatedAt >= :updatedSince OR p.updatedAt >= :updatedSince")
+  Stream<User> streamUpdatedSince(@Param("updatedSince") Instant updatedSince);
+
+  // Warms the NameIndex
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT new com.example.demo.domain.user.dto.UserNameDTO(u.id, u.firstName, u.lastName) FROM User u")
+  Stream<UserNameDTO> streamAllNames();
+
+  // Builds the UserDirectory snapshot
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT new com.example.demo.domain.user.UserDirectoryRow(u.id, u.firstName, u.lastName, u.lastNameNumber, "
+         + "p.birthDate) FROM User u LEFT JOIN u.profile p")
+  Stream<UserDirectoryRow> streamDirectoryRows();
+
+  // Reconcile the UserStatistics counters
+  @Query("SELECT new com.example.demo.domain.user.UserDateCount(p.birthDate, count(u)) "
+         + "FROM User u LEFT JOIN u.profile p GROUP BY p.birthDate")
+  List<UserDateCount> countByBirthDate();
+
+  @Query("SELECT new com.example.demo.domain.user.UserDateCount(cast(u.createdAt as LocalDate), count(u)) "
+         + "FROM User u GROUP BY cast(u.createdAt as LocalDate)")
+  List<UserDateCount> countBySignupDay();
+
+  // Warms the EmailIndex
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT u.email FROM User u")
+  Stream<String> streamAllEmails();
+
+  // Referenced profile images, everything else in the store is collected by ProfileImageCollector
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT p.profileImageUrl FROM UserProfile p WHERE p.profileImageUrl IS NOT NULL")
+  Stream<String> streamProfileImageUrls();
+
 }
@@ -0,0 +1,21 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.RevokedUsers;
+import jakarta.persistence.PostRemove;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Revokes the tokens of deleted users in the stateless mode, the bulk operations report to RevokedUsers directly
+public class UserRevocationListener {
+
+  private final ObjectProvider<RevokedUsers> revokedUsers;
+
+  public UserRevocationListener(ObjectProvider<RevokedUsers> revokedUsers) {
+    this.revokedUsers = revokedUsers;
+  }
+
+  @PostRemove
+  void removed(User user) {
+    revokedUsers.ifAvailable(revoked -> revoked.deleted(List.of(user.getId())));
+  }
+}
@@ -1,13 +1,24 @@
 package com.example.demo.domain.user;
 
 import com.example.demo.core.generic.AbstractService;
+import com.example.demo.core.generic.KeysetPage;
+import com.example.demo.core.generic.KeysetRequest;
+import com.example.demo.domain.user.dto.UserNameDTO;
+import com.example.demo.domain.user.dto.UserStatisticsDTO;
+import com.example.demo.domain.user.dto.UserSummaryDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.util.List;
 import java.util.UUID;
 
-public interface UserService extends UserDetailsService, AbstractService<User> {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService, AbstractService<User> {
+
+    UserDetailsImpl loadUserById(UUID id);
+
+    UserVersion findVersion(UUID id);
 
     User register(User user);
 
@@ -21,6 +32,30 @@ public interface UserService extends UserDetailsService, AbstractService<User> {
             Pageable pageable
     );
 
+    List<UserSummaryDTO> findAllSummaries();
+
+    Page<UserSummaryDTO> getFilteredUserSummaries(
+            Integer minAge,
+            Integer maxAge,
+            String firstName,
+            String lastName,
+            Pageable pageable
+    );
+
+    KeysetPage<User> getFilteredUsersAfter(
+            Integer minAge,
+            Integer maxAge,
+            String firstName,
+            String lastName,
+            KeysetRequest request
+    );
+
+    boolean isEmailAvailable(String email);
+
+    List<UserNameDTO> autocomplete(String prefix, int limit);
+
+    UserStatisticsDTO getStatistics(int days);
+
     void deleteUserById(UUID id);
 
     void deleteOwnProfileById(UUID id);
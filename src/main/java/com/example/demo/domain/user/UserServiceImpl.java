@@ -1,17 +1,26 @@
 package com.example.demo.domain.user;
 
 import com.example.demo.core.generic.AbstractServiceImpl;
+import com.example.demo.core.generic.KeysetPage;
+import com.example.demo.core.generic.KeysetRequest;
+import com.example.demo.core.security.cache.PrincipalCache;
 import com.example.demo.domain.role.Role;
-import com.example.demo.domain.role.RoleService;
+import com.example.demo.domain.role.RoleSnapshot;
 import com.example.demo.domain.user.dto.UserMapper;
+import com.example.demo.domain.user.dto.UserNameDTO;
 import com.example.demo.domain.user.dto.UserRegisterDTO;
+import com.example.demo.domain.user.dto.UserStatisticsDTO;
+import com.example.demo.domain.user.dto.UserSummaryDTO;
 import com.example.demo.domain.userProfile.UserProfile;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import com.example.demo.domain.user.dto.UserDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,42 +38,72 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
+@Timed("user.service")
 public class UserServiceImpl extends AbstractServiceImpl<User> implements UserService {
 
   private final PasswordEncoder passwordEncoder;
-  private final RoleService roleService;
   private final UserRepository userRepository;
   private final UserMapper userMapper;
+  private final PrincipalCache principalCache;
+  private final RoleSnapshot roleSnapshot;
+  private final EmailIndex emailIndex;
+  private final NameIndex nameIndex;
+  private final UserDirectory userDirectory;
+  private final UserStatistics userStatistics;
 
   @Autowired
-  public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder, RoleService roleService, UserRepository userRepository, UserMapper userMapper) {
+  public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder, UserRepository userRepository, UserMapper userMapper, PrincipalCache principalCache, RoleSnapshot roleSnapshot, EmailIndex emailIndex, NameIndex nameIndex, UserDirectory userDirectory, UserStatistics userStatistics) {
     super(repository);
     this.passwordEncoder = passwordEncoder;
-      this.roleService = roleService;
       this.userRepository = userRepository;
       this.userMapper = userMapper;
+      this.principalCache = principalCache;
+      this.roleSnapshot = roleSnapshot;
+      this.emailIndex = emailIndex;
+      this.nameIndex = nameIndex;
+      this.userDirectory = userDirectory;
+      this.userStatistics = userStatistics;
   }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return ((UserRepository) repository).findByEmail(email)
-                .map(UserDetailsImpl::new)
+                .map(this::toUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException(email));
     }
 
+  // Called by DaoAuthenticationProvider after a successful login when the stored hash uses an outdated cost.
+  // Goes through the entity so that the version, updatedAt and the entity listeners see the change.
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    UserDetailsImpl details = (UserDetailsImpl) userDetails;
+    userRepository.findById(details.user().getId())
+                  .orElseThrow(() -> new UsernameNotFoundException(details.getUsername()))
+                  .setPassword(newPassword);
+    details.user().setPassword(newPassword);
+    principalCache.evict(details.user().getId());
+    return details;
+  }
+
+  @Override
+  public UserDetailsImpl loadUserById(UUID id) {
+    return toUserDetails(findById(id));
+  }
+
+  private UserDetailsImpl toUserDetails(User user) {
+    return new UserDetailsImpl(user, roleSnapshot.authoritiesOf(user.getRoles()));
+  }
+
   @Override
   @Transactional
   public User register(User user) {
     validateAge(user.getProfile().getBirthDate());
+    assertEmailAvailable(user.getEmail());
     user.setPassword(passwordEncoder.encode(user.getPassword()));
-    Role userRole = roleService.findById(
-            UUID.fromString("c6aee32d-8c35-4481-8b3e-a876a39b0c02")
-    );
-    user.setRoles(Set.of(userRole));
+    user.setRoles(Set.of(roleSnapshot.defaultUserRole()));
     if (user.getProfile() != null) {
       user.getProfile().setUser(user);
     }
@@ -78,6 +117,7 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
   @Override
   @Transactional
   public User registerUser(User user){
+    assertEmailAvailable(user.getEmail());
     if (user.getPassword() != null && !user.getPassword().isBlank()) {
       user.setPassword(passwordEncoder.encode(user.getPassword()));
     }
@@ -87,22 +127,68 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
     return userRepository.save(user);
   }
 
+  @Override
+  public UserVersion findVersion(UUID id) {
+    return userRepository.findVersionById(id).orElseThrow(NoSuchElementException::new);
+  }
+
+  public UserVersion findVersionByEmail(String email) {
+    return userRepository.findVersionByEmail(email).orElseThrow(() -> new UsernameNotFoundException(email));
+  }
+
+  // PUT /user/{id} replaces names, email and profile unconditionally, the password is kept and the roles only
+  // change when the body has some. Copied onto the loaded user instead of merging the detached copy, whose
+  // profile has neither id nor user, so the entity listeners see the old and the new state.
+  @Override
+  @Transactional
+  public User updateById(UUID id, User entity) {
+    User user = userRepository.findById(id).orElseThrow(NoSuchElementException::new);
+    user.setFirstName(entity.getFirstName());
+    user.setLastName(entity.getLastName());
+    user.setEmail(entity.getEmail());
+    if (entity.getRoles() != null && !entity.getRoles().isEmpty()) {
+      user.setRoles(entity.getRoles());
+    }
+    UserProfile changes = entity.getProfile();
+    if (changes != null) {
+      UserProfile profile = user.getProfile();
+      if (profile == null) {
+        profile = new UserProfile();
+        profile.setUser(user);
+        user.setProfile(profile);
+      }
+      profile.setAddress(changes.getAddress());
+      profile.setBirthDate(changes.getBirthDate());
+      String imageUrl = changes.getProfileImageUrl();
+      profile.setProfileImageUrl(imageUrl != null && imageUrl.isBlank() ? null : imageUrl);
+    }
+    userRepository.saveAndFlush(user);
+    principalCache.evict(id);
+    return user;
+  }
+
+  // One select that also loads the profile for the cascade, instead of existsById followed by the
+  // repository's own findById. The entity delete keeps the audit and email listeners involved.
+  @Override
+  @Transactional
+  public void deleteById(UUID id) {
+    User user = userRepository.findById(id)
+                              .orElseThrow(() -> new NoSuchElementException(
+                                  String.format("Entity with ID '%s' could not be found", id)));
+    userRepository.delete(user);
+    principalCache.evict(id);
+  }
+
     //Show all users without any filter
     public List<User> findAll() {
         return repository.findAll();
     }
 
+    // Full years, the birthday has to be reached in the current year
     public Integer calculateAge(LocalDate birthDate) {
-        LocalDate today = LocalDate.now();
-        Integer age = today.getYear() - birthDate.getYear();
-        return age;
+        return Period.between(birthDate, LocalDate.now()).getYears();
     }
 
-  private int extractNumber(String value) {
-    Matcher m = Pattern.compile("(\\d+)$").matcher(value);
-    return m.find() ? Integer.parseInt(m.group(1)) : 0;
-  }
-
     //This function is an admin only function 
     // The method is able to filter users based on age and name
     //The results are paginated and also sorted
@@ -114,43 +200,90 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
           String lastName,
           Pageable pageable
   ) {
+    // The directory snapshot answers with the ids of the page, otherwise the database does filtering,
+    // sorting and paging (LIMIT/OFFSET plus a count query)
+    Optional<Page<UUID>> ids = userDirectory.findPage(minAge, maxAge, firstName, lastName, pageable);
+    if (ids.isPresent()) {
+      return loadInOrder(ids.get());
+    }
+    return userRepository.findAll(
+            UserSpecifications.adminSearch(minAge, maxAge, firstName, lastName),
+            withIdTiebreaker(pageable)
+    );
+  }
 
-    // Convert firstName and lastName to lowercase for case-insensitive comparison
-    String fName = (firstName == null || firstName.isBlank())
-            ? null
-            : firstName.toLowerCase();
-
-    String lName = (lastName == null || lastName.isBlank())
-            ? null
-            : lastName.toLowerCase();
-
-    List<User> filteredList = repository.findAll()
-            .stream()
-            .filter(u -> fName == null || u.getFirstName().toLowerCase().startsWith(fName))
-            .filter(u -> lName == null || u.getLastName().toLowerCase().startsWith(lName))
-            .filter(u -> minAge == null || calculateAge(u.getProfile().getBirthDate()) >= minAge)
-            .filter(u -> maxAge == null || calculateAge(u.getProfile().getBirthDate()) <= maxAge)
-            .sorted(Comparator
-                    .comparing(
-                            (User u) -> extractNumber(u.getLastName())
-                    )
-            )
+  // Users deleted since the snapshot was patched are skipped
+  private Page<User> loadInOrder(Page<UUID> ids) {
+    Map<UUID, User> byId = new HashMap<>();
+    userRepository.findAllById(ids.getContent()).forEach(user -> byId.put(user.getId(), user));
+    List<User> users = ids.getContent().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
             .toList();
+    return new PageImpl<>(users, ids.getPageable(), ids.getTotalElements());
+  }
 
-    int start = (int) pageable.getOffset();
-    int end = Math.min(start + pageable.getPageSize(), filteredList.size());
+  // List views only need a handful of columns, the projections skip entity hydration and dirty checking
+  @Override
+  public List<UserSummaryDTO> findAllSummaries() {
+    return userRepository.findAllSummaries(Sort.by("lastNameNumber", "lastName", "firstName", "id"));
+  }
 
-    List<User> pageContent =
-            start >= filteredList.size()
-                    ? List.of()
-                    : filteredList.subList(start, end);
+  @Override
+  public Page<UserSummaryDTO> getFilteredUserSummaries(
+          Integer minAge,
+          Integer maxAge,
+          String firstName,
+          String lastName,
+          Pageable pageable
+  ) {
+    Optional<Page<UUID>> ids = userDirectory.findPage(minAge, maxAge, firstName, lastName, pageable);
+    if (ids.isPresent()) {
+      return loadSummariesInOrder(ids.get());
+    }
+    return userRepository.findAllSummaries(
+            UserSpecifications.adminSearch(minAge, maxAge, firstName, lastName),
+            withIdTiebreaker(pageable)
+    );
+  }
 
-    return new PageImpl<>(pageContent, pageable, filteredList.size());
+  // One IN query for the page, put back into the order of the snapshot
+  private Page<UserSummaryDTO> loadSummariesInOrder(Page<UUID> ids) {
+    Map<UUID, UserSummaryDTO> byId = new HashMap<>();
+    userRepository.findSummariesByIds(ids.getContent()).forEach(summary -> byId.put(summary.id(), summary));
+    List<UserSummaryDTO> summaries = ids.getContent().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+    return new PageImpl<>(summaries, ids.getPageable(), ids.getTotalElements());
   }
 
+  // Cursor based variant of the admin search, seeks on (sort key, id) instead of using OFFSET
+  @Override
+  public KeysetPage<User> getFilteredUsersAfter(
+          Integer minAge,
+          Integer maxAge,
+          String firstName,
+          String lastName,
+          KeysetRequest request
+  ) {
+    return findAll(UserSpecifications.adminSearch(minAge, maxAge, firstName, lastName), request);
+  }
+
+  // Appends the primary key to the requested sort so that equal sort keys page deterministically
+  private Pageable withIdTiebreaker(Pageable pageable) {
+    if (pageable.isUnpaged() || pageable.getSort().getOrderFor("id") != null) {
+      return pageable;
+    }
+    return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+            pageable.getSort().and(Sort.by(Sort.Direction.ASC, "id")));
+  }
+
+  @Transactional
   public void deleteUserById(UUID id) {
-        userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("There is no user with this id: " + id.toString()));
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("There is no user with this id: " + id.toString()));
+        userRepository.delete(user);
+        principalCache.evict(id);
     }
 
   @Transactional
@@ -158,6 +291,7 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
 
 // Validate age user has to be at least 13 years old
     validateAge(userRegisterDTO.getProfile().getBirthDate());
+    assertEmailAvailable(userRegisterDTO.getEmail());
 
     User user = new User();
     user.setEmail(userRegisterDTO.getEmail());
@@ -166,10 +300,7 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
     user.setPassword(passwordEncoder.encode(userRegisterDTO.getPassword()));
 
     // Assign USER role "User" to new registered users 
-    Role userRole = roleService.findById(
-            UUID.fromString("c6aee32d-8c35-4481-8b3e-a876a39b0c02")
-    );
-    user.setRoles(Set.of(userRole));
+    user.setRoles(Set.of(roleSnapshot.defaultUserRole()));
 
     UserProfile profile = new UserProfile();
     profile.setAddress(userRegisterDTO.getProfile().getAddress());
@@ -188,7 +319,29 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
     return userRepository.save(user);
   }
 
-  private void validateAge(LocalDate birthDate) {
+  @Override
+  public boolean isEmailAvailable(String email) {
+    return !emailIndex.isTaken(email);
+  }
+
+  @Override
+  public List<UserNameDTO> autocomplete(String prefix, int limit) {
+    return nameIndex.search(prefix, limit);
+  }
+
+  @Override
+  public UserStatisticsDTO getStatistics(int days) {
+    return userStatistics.statistics(days);
+  }
+
+  // Runs before the password is hashed, a taken email is rejected without any write
+  private void assertEmailAvailable(String email) {
+    if (emailIndex.isTaken(email)) {
+      throw new EmailAlreadyInUseException(email);
+    }
+  }
+
+  static void validateAge(LocalDate birthDate) {
     int age = Period.between(birthDate, LocalDate.now()).getYears();
 
     // validates if the user is at least 13
@@ -203,9 +356,15 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
   }
 
   @Transactional
-  public UserDTO updateOwnProfile(UUID id, UserDTO userDTO){
+  public User updateOwnProfile(UUID id, UserDTO userDTO, String ifMatch){
     User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
 
+    // If-Match makes the update conditional on the version the client has seen, a concurrent
+    // write between this check and the flush is caught by the @Version columns
+    if (ifMatch != null && !UserVersion.of(user).matches(ifMatch)) {
+      throw new OptimisticLockingFailureException("User " + id + " has been modified in the meantime");
+    }
+
     // User cannot update age to be less than 13
     validateAge(userDTO.getProfile().getBirthDate());
     user.setFirstName(userDTO.getFirstName());
@@ -222,21 +381,23 @@ public class UserServiceImpl extends AbstractServiceImpl<User> implements UserSe
     profile.setAddress(userDTO.getProfile().getAddress());
     profile.setBirthDate(userDTO.getProfile().getBirthDate());
     profile.setProfileImageUrl(userDTO.getProfile().getProfileImageUrl());
-    profile.setProfileImageUrl(userDTO.getProfile().getProfileImageUrl());
 
     if (profile.getProfileImageUrl() != null && profile.getProfileImageUrl().isBlank()) {
       profile.setProfileImageUrl(null);
     }
 
 
-    userRepository.save(user);
+    userRepository.saveAndFlush(user);
+    principalCache.evict(id);
 
-    return userMapper.toDTO(user);
+    return user;
   }
 
   @Override
+  @Transactional
   public void deleteOwnProfileById(UUID id){
     User user = userRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
     userRepository.delete(user);
+    principalCache.evict(id);
   }
 }
@@ -0,0 +1,90 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+public final class UserSpecifications {
+
+  private static final char LIKE_ESCAPE = '\\';
+
+  private UserSpecifications() {
+  }
+
+  // Combines all admin search filters, null or blank values are ignored
+  public static Specification<User> adminSearch(Integer minAge, Integer maxAge, String firstName, String lastName) {
+    return Specification.where(firstNameStartsWith(firstName))
+            .and(lastNameStartsWith(lastName))
+            .and(ageBetween(minAge, maxAge, LocalDate.now()));
+  }
+
+  public static Specification<User> firstNameStartsWith(String prefix) {
+    return startsWithIgnoreCase("firstName", prefix);
+  }
+
+  public static Specification<User> lastNameStartsWith(String prefix) {
+    return startsWithIgnoreCase("lastName", prefix);
+  }
+
+  // The age bounds are translated into a birth date range so the database can use the birth_date index
+  // age >= minAge  <=>  birthDate <= today - minAge years
+  // age <= maxAge  <=>  birthDate >  today - (maxAge + 1) years
+  public static Specification<User> ageBetween(Integer minAge, Integer maxAge, LocalDate today) {
+    if (minAge == null && maxAge == null) {
+      return null;
+    }
+    return (root, query, cb) -> {
+      Join<User, UserProfile> profile = profileJoin(root);
+      if (minAge != null && maxAge != null) {
+        return cb.and(
+                cb.lessThanOrEqualTo(profile.get("birthDate"), today.minusYears(minAge)),
+                cb.greaterThan(profile.get("birthDate"), today.minusYears(maxAge + 1L)));
+      }
+      if (minAge != null) {
+        return cb.lessThanOrEqualTo(profile.get("birthDate"), today.minusYears(minAge));
+      }
+      return cb.greaterThan(profile.get("birthDate"), today.minusYears(maxAge + 1L));
+    };
+  }
+
+  // Reuses the join of a projection that reads the profile already (a LEFT join filtered on a profile column
+  // returns the same rows as an INNER join), otherwise joins the profile itself
+  @SuppressWarnings("unchecked")
+  private static Join<User, UserProfile> profileJoin(Root<User> root) {
+    for (Join<User, ?> join : root.getJoins()) {
+      if ("profile".equals(join.getAttribute().getName())) {
+        return (Join<User, UserProfile>) join;
+      }
+    }
+    return root.join("profile", JoinType.INNER);
+  }
+
+  // Either name, used by the autocomplete until the NameIndex is warm
+  public static Specification<User> nameStartsWith(String prefix) {
+    Specification<User> firstName = firstNameStartsWith(prefix);
+    return firstName == null ? null : firstName.or(lastNameStartsWith(prefix));
+  }
+
+  private static Specification<User> startsWithIgnoreCase(String attribute, String prefix) {
+    if (prefix == null || prefix.isBlank()) {
+      return null;
+    }
+    String pattern = escapeLike(prefix.trim().toLowerCase()) + "%";
+    return (root, query, cb) -> cb.like(cb.lower(root.get(attribute)), pattern, LIKE_ESCAPE);
+  }
+
+  private static String escapeLike(String value) {
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        escaped.append(LIKE_ESCAPE);
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+}
@@ -0,0 +1,231 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.persistence.AfterCommit;
+import com.example.demo.domain.user.dto.UserStatisticsDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Counters behind GET /user/admin/stats, one per birth date and one per signup day. Age brackets are
+// summed from the birth dates at request time, so the answer costs O(distinct birth dates + days)
+// instead of a pass over the users. UserStatisticsListener reports every write, applied after commit.
+// A periodic reconciliation recounts in the database and replaces the counters, which corrects writes
+// that bypass the entity listeners and changes that commit while a reconciliation is running.
+@Log4j2
+@Component
+public class UserStatistics implements MeterBinder {
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final List<Integer> ageBrackets;
+  private final int maxDays;
+
+  private volatile Counters counters;
+  // sum of the differences found by the last reconciliation
+  private volatile long lastDrift;
+
+  public UserStatistics(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                        UserStatisticsProperties properties) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.ageBrackets = properties.getAgeBrackets()
+                                 .stream()
+                                 .distinct()
+                                 .sorted()
+                                 .toList();
+    this.maxDays = properties.getMaxDays();
+  }
+
+  private static final class Counters {
+
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> birthDates = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> signupDays = new ConcurrentSkipListMap<>();
+    private final LongAdder withoutBirthDate = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final Instant reconciledAt;
+
+    private Counters(Instant reconciledAt) {
+      this.reconciledAt = reconciledAt;
+    }
+
+    private void add(LocalDate birthDate, LocalDate signupDay, long users) {
+      total.add(users);
+      addBirthDate(birthDate, users);
+      if (signupDay != null) {
+        add(signupDays, signupDay, users);
+      }
+    }
+
+    private void addBirthDate(LocalDate birthDate, long users) {
+      if (birthDate == null) {
+        withoutBirthDate.add(users);
+      }
+      else {
+        add(birthDates, birthDate, users);
+      }
+    }
+
+    private static void add(ConcurrentSkipListMap<LocalDate, LongAdder> counts, LocalDate date, long users) {
+      counts.computeIfAbsent(date, key -> new LongAdder()).add(users);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    reconcile();
+  }
+
+  @Scheduled(fixedDelayString = "${users.stats.reconcile-interval-millis:600000}",
+             initialDelayString = "${users.stats.reconcile-interval-millis:600000}")
+  public synchronized void reconcile() {
+    try {
+      long start = System.nanoTime();
+      Counters next = readOnlyTransaction.execute(status -> {
+        Counters recounted = new Counters(Instant.now());
+        userRepository.countByBirthDate()
+                      .forEach(row -> {
+                        recounted.total.add(row.users());
+                        recounted.addBirthDate(row.date(), row.users());
+                      });
+        userRepository.countBySignupDay()
+                      .stream()
+                      .filter(row -> row.date() != null)
+                      .forEach(row -> Counters.add(recounted.signupDays, row.date(), row.users()));
+        return recounted;
+      });
+      Counters previous = counters;
+      counters = next;
+      if (previous != null) {
+        lastDrift = drift(previous, next);
+        if (lastDrift > 0) {
+          log.info("User statistics were off by {} users", lastDrift);
+        }
+      }
+      log.debug("User statistics reconciled in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    catch (RuntimeException e) {
+      log.warn("Could not reconcile the user statistics", e);
+    }
+  }
+
+  private static long drift(Counters previous, Counters next) {
+    long drift = Math.abs(previous.withoutBirthDate.sum() - next.withoutBirthDate.sum());
+    Set<LocalDate> dates = new HashSet<>(previous.birthDates.keySet());
+    dates.addAll(next.birthDates.keySet());
+    for (LocalDate date : dates) {
+      drift += Math.abs(count(previous.birthDates, date) - count(next.birthDates, date));
+    }
+    return drift;
+  }
+
+  public UserStatisticsDTO statistics(int days) {
+    Counters snapshot = counters;
+    if (snapshot == null) {
+      reconcile();
+      snapshot = counters;
+      if (snapshot == null) {
+        throw new IllegalStateException("The user statistics are not available yet");
+      }
+    }
+    LocalDate today = LocalDate.now();
+
+    // Same bounds as UserSpecifications.ageBetween
+    // age >= minAge  <=>  birthDate <= today - minAge years
+    // age <= maxAge  <=>  birthDate >  today - (maxAge + 1) years
+    List<UserStatisticsDTO.AgeBracket> brackets = new ArrayList<>(ageBrackets.size());
+    for (int i = 0; i < ageBrackets.size(); i++) {
+      int minAge = ageBrackets.get(i);
+      Integer maxAge = i + 1 < ageBrackets.size() ? ageBrackets.get(i + 1) - 1 : null;
+      NavigableMap<LocalDate, LongAdder> range = maxAge == null
+          ? snapshot.birthDates.headMap(today.minusYears(minAge), true)
+          : snapshot.birthDates.subMap(today.minusYears(maxAge + 1L), false, today.minusYears(minAge), true);
+      brackets.add(new UserStatisticsDTO.AgeBracket(minAge, maxAge, sum(range.values())));
+    }
+
+    int boundedDays = Math.max(1, Math.min(days, maxDays));
+    List<UserStatisticsDTO.DailyCount> signups = new ArrayList<>(boundedDays);
+    for (LocalDate day = today.minusDays(boundedDays - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+      signups.add(new UserStatisticsDTO.DailyCount(day, count(snapshot.signupDays, day)));
+    }
+
+    return new UserStatisticsDTO(snapshot.total.sum(), snapshot.withoutBirthDate.sum(), brackets, signups,
+                                 snapshot.reconciledAt);
+  }
+
+  private static long sum(Collection<LongAdder> counts) {
+    long sum = 0;
+    for (LongAdder count : counts) {
+      sum += count.sum();
+    }
+    return sum;
+  }
+
+  private static long count(NavigableMap<LocalDate, LongAdder> counts, LocalDate date) {
+    LongAdder count = counts.get(date);
+    return count == null ? 0 : count.sum();
+  }
+
+  // Signup days are local to the JVM's time zone, the reconciliation casts in the database session's zone
+  static LocalDate signupDay(Instant createdAt) {
+    return createdAt == null ? null : LocalDate.ofInstant(createdAt, ZoneId.systemDefault());
+  }
+
+  // Users are counted without birth date, the profile's birth date is reported by birthDateChanged
+  void registered(User user) {
+    LocalDate signupDay = signupDay(user.getCreatedAt());
+    afterCommit(counts -> counts.add(null, signupDay, 1));
+  }
+
+  void removed(User user) {
+    LocalDate signupDay = signupDay(user.getCreatedAt());
+    afterCommit(counts -> counts.add(null, signupDay, -1));
+  }
+
+  void birthDateChanged(LocalDate previous, LocalDate next) {
+    if (previous == null ? next == null : previous.equals(next)) {
+      return;
+    }
+    afterCommit(counts -> {
+      counts.addBirthDate(previous, -1);
+      counts.addBirthDate(next, 1);
+    });
+  }
+
+  private void afterCommit(Consumer<Counters> change) {
+    AfterCommit.run(() -> apply(change));
+  }
+
+  private void apply(Consumer<Counters> change) {
+    Counters current = counters;
+    if (current != null) {
+      change.accept(current);
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("users.stats.drift", this, statistics -> statistics.lastDrift)
+         .register(registry);
+  }
+}
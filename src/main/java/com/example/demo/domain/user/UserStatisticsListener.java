@@ -0,0 +1,63 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.time.LocalDate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Reports writes to the UserStatistics counters, registered on User and UserProfile. A user is counted
+// without birth date, its profile then moves it to the birth date, so each entity only reports its own
+// columns. Profiles remember the birth date they were loaded with, which makes updates report the old and
+// the new date.
+public class UserStatisticsListener {
+
+  private final ObjectProvider<UserStatistics> userStatistics;
+
+  public UserStatisticsListener(ObjectProvider<UserStatistics> userStatistics) {
+    this.userStatistics = userStatistics;
+  }
+
+  @PostLoad
+  void loaded(Object entity) {
+    if (entity instanceof UserProfile profile) {
+      profile.setPersistedBirthDate(profile.getBirthDate());
+    }
+  }
+
+  @PostPersist
+  void persisted(Object entity) {
+    if (entity instanceof User user) {
+      userStatistics.ifAvailable(statistics -> statistics.registered(user));
+    }
+    else if (entity instanceof UserProfile profile) {
+      birthDateChanged(profile, null);
+    }
+  }
+
+  @PostUpdate
+  void updated(Object entity) {
+    if (entity instanceof UserProfile profile) {
+      birthDateChanged(profile, profile.getPersistedBirthDate());
+    }
+  }
+
+  @PostRemove
+  void removed(Object entity) {
+    if (entity instanceof User user) {
+      userStatistics.ifAvailable(statistics -> statistics.removed(user));
+    }
+    else if (entity instanceof UserProfile profile) {
+      LocalDate previous = profile.getPersistedBirthDate();
+      userStatistics.ifAvailable(statistics -> statistics.birthDateChanged(previous, null));
+    }
+  }
+
+  private void birthDateChanged(UserProfile profile, LocalDate previous) {
+    LocalDate next = profile.getBirthDate();
+    profile.setPersistedBirthDate(next);
+    userStatistics.ifAvailable(statistics -> statistics.birthDateChanged(previous, next));
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.domain.user;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("users.stats")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserStatisticsProperties {
+
+  // lower bounds of the age brackets, the last one is open ended
+  private List<Integer> ageBrackets = List.of(13, 18, 25, 35, 45, 55, 65);
+  private long reconcileIntervalMillis = 600_000;
+  private int maxDays = 366;
+
+}
@@ -0,0 +1,24 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserSummaryDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+// Column-only projections of users, nothing returned here is attached to the persistence context
+public interface UserSummaryRepository {
+
+  List<UserSummaryDTO> findAllSummaries(Sort sort);
+
+  Page<UserSummaryDTO> findAllSummaries(Specification<User> spec, Pageable pageable);
+
+  // Unordered, missing ids are skipped
+  List<UserSummaryDTO> findSummariesByIds(Collection<UUID> ids);
+
+  // Ids of the matching users, selects the bulk operations
+  List<UUID> findIds(Specification<User> spec, int limit);
+}
@@ -0,0 +1,102 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserSummaryDTO;
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+// Picked up by Spring Data as the implementation of the UserSummaryRepository fragment
+public class UserSummaryRepositoryImpl implements UserSummaryRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<UserSummaryDTO> findAllSummaries(Sort sort) {
+    return createQuery(null, sort).getResultList();
+  }
+
+  @Override
+  public Page<UserSummaryDTO> findAllSummaries(Specification<User> spec, Pageable pageable) {
+    TypedQuery<UserSummaryDTO> query = createQuery(spec, pageable.getSort());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    // the count query is skipped when the page tells the total already (first or last page)
+    return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+  }
+
+  @Override
+  public List<UserSummaryDTO> findSummariesByIds(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return createQuery((root, query, cb) -> root.get("id").in(ids), Sort.unsorted()).getResultList();
+  }
+
+  private TypedQuery<UserSummaryDTO> createQuery(Specification<User> spec, Sort sort) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<UserSummaryDTO> query = cb.createQuery(UserSummaryDTO.class);
+    Root<User> root = query.from(User.class);
+    Join<User, UserProfile> profile = root.join("profile", JoinType.LEFT);
+    query.select(cb.construct(UserSummaryDTO.class,
+                              root.get("id"),
+                              root.get("firstName"),
+                              root.get("lastName"),
+                              root.get("email"),
+                              profile.get("birthDate"),
+                              profile.get("profileImageUrl")));
+    Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    if (sort.isSorted()) {
+      query.orderBy(QueryUtils.toOrders(sort, root, cb));
+    }
+    return entityManager.createQuery(query);
+  }
+
+  @Override
+  public List<UUID> findIds(Specification<User> spec, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+    Root<User> root = query.from(User.class);
+    query.select(root.get("id"));
+    Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query)
+                        .setMaxResults(limit)
+                        .getResultList();
+  }
+
+  private long count(Specification<User> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<User> root = query.from(User.class);
+    query.select(cb.count(root));
+    Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query).getSingleResult();
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.domain.user;
+
+import java.util.UUID;
+
+// Version stamp of what GET /user/{id} and /user/profile return, the profile is versioned on its own
+public record UserVersion(UUID id, long version, Long profileVersion) {
+
+  public static UserVersion of(User user) {
+    return new UserVersion(user.getId(), user.getVersion(),
+                           user.getProfile() == null ? null : user.getProfile().getVersion());
+  }
+
+  // Strong ETag, changes whenever the user or its profile is written
+  public String etag() {
+    return "\"" + id + "-" + version + "-" + (profileVersion == null ? "none" : profileVersion) + "\"";
+  }
+
+  // If-Match uses the strong comparison, weak tags never match
+  public boolean matches(String ifMatch) {
+    String etag = etag();
+    for (String candidate : ifMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*") || tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.domain.user.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchRegistrationReport(int created, int failed, List<Item> items) {
+
+  public enum Status {
+    CREATED, FAILED
+  }
+
+  // index is the position of the item in the request body
+  public record Item(int index, String email, Status status, UUID id, String error) {
+
+    public static Item created(int index, String email, UUID id) {
+      return new Item(index, email, Status.CREATED, id, null);
+    }
+
+    public static Item failed(int index, String email, String error) {
+      return new Item(index, email, Status.FAILED, null, error);
+    }
+  }
+
+  public static BatchRegistrationReport of(List<Item> items) {
+    int created = (int) items.stream()
+                             .filter(i -> i.status() == Status.CREATED)
+                             .count();
+    return new BatchRegistrationReport(created, items.size() - created, items);
+  }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.domain.user.dto;
+
+// Users that were inactive already are matched but not counted as deactivated
+public record BulkDeactivateReport(int matched, int deactivated) {
+}
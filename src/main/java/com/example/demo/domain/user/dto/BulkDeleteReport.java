@@ -0,0 +1,5 @@
+package com.example.demo.domain.user.dto;
+
+// matched is the number of users selected by the request, the other counts are deleted rows
+public record BulkDeleteReport(int matched, int users, int profiles, int roleLinks) {
+}
@@ -0,0 +1,5 @@
+package com.example.demo.domain.user.dto;
+
+// Users that were active already are matched but not counted as reactivated
+public record BulkReactivateReport(int matched, int reactivated) {
+}
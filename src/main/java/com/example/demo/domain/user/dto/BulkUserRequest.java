@@ -0,0 +1,19 @@
+package com.example.demo.domain.user.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Either explicit ids or an admin search filter, not both
+public record BulkUserRequest(List<UUID> ids, Filter filter) {
+
+  public record Filter(Integer minAge, Integer maxAge, String firstName, String lastName) {
+
+    public boolean isEmpty() {
+      return minAge == null && maxAge == null && isBlank(firstName) && isBlank(lastName);
+    }
+
+    private static boolean isBlank(String value) {
+      return value == null || value.isBlank();
+    }
+  }
+}
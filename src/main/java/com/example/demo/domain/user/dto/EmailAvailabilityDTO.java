@@ -0,0 +1,4 @@
+package com.example.demo.domain.user.dto;
+
+public record EmailAvailabilityDTO(String email, boolean available) {
+}
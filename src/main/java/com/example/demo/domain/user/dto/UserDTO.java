@@ -8,6 +8,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import com.example.demo.domain.userProfile.dto.UserProfileDTO;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
@@ -33,6 +34,9 @@ public class UserDTO extends AbstractDTO {
 
   private UserProfileDTO profile;
 
+  // Output only, deactivation goes through the admin bulk endpoints
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private boolean active;
 
   public UserDTO(UUID id, String firstName, String lastName, String email, Set<RoleDTO> roles, UserProfileDTO profile) {
     super(id);
@@ -4,9 +4,17 @@ package com.example.demo.domain.user.dto;
 import com.example.demo.core.generic.AbstractMapper;
 import com.example.demo.domain.user.User;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface UserMapper extends AbstractMapper<User, UserDTO> {
+  // A body can't deactivate its user, nor does the missing flag mean inactive
+  @Override
+  @Mapping(target = "active", ignore = true)
+  User fromDTO(UserDTO dto);
+
   User fromUserRegisterDTO(UserRegisterDTO dto);
+
+  UserPatchDTO toPatchDTO(User user);
 }
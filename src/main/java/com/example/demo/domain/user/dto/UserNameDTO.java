@@ -0,0 +1,7 @@
+package com.example.demo.domain.user.dto;
+
+import java.util.UUID;
+
+// Autocomplete result, also the entry type of the in-memory NameIndex
+public record UserNameDTO(UUID id, String firstName, String lastName) {
+}
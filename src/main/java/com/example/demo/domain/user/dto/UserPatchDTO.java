@@ -0,0 +1,33 @@
+package com.example.demo.domain.user.dto;
+
+import com.example.demo.domain.userProfile.dto.UserProfileDTO;
+import com.fasterxml.jackson.annotation.JsonMerge;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+// Fields a JSON Merge Patch may change, anything else in a patch is rejected
+@NoArgsConstructor
+@Getter
+@Setter
+@Accessors(chain = true)
+public class UserPatchDTO {
+
+  private String firstName;
+
+  private String lastName;
+
+  @NotBlank
+  @Email
+  private String email;
+
+  // merged field by field, a patch may contain only some profile fields
+  @Valid
+  @JsonMerge
+  private UserProfileDTO profile;
+
+}
@@ -0,0 +1,16 @@
+package com.example.demo.domain.user.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public record UserStatisticsDTO(long totalUsers, long withoutBirthDate, List<AgeBracket> ageBrackets,
+                                List<DailyCount> signupsPerDay, Instant reconciledAt) {
+
+  // maxAge is null for the last, open ended bracket
+  public record AgeBracket(int minAge, Integer maxAge, long users) {
+  }
+
+  public record DailyCount(LocalDate date, long users) {
+  }
+}
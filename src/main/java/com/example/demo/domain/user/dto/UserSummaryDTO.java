@@ -0,0 +1,13 @@
+package com.example.demo.domain.user.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Read model of the list views, filled by constructor expressions instead of mapping managed entities
+public record UserSummaryDTO(UUID id,
+                             String firstName,
+                             String lastName,
+                             String email,
+                             LocalDate birthDate,
+                             String profileImageUrl) {
+}
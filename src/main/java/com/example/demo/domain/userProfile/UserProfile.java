@@ -2,15 +2,22 @@ package com.example.demo.domain.userProfile;
 
 import com.example.demo.core.generic.AbstractEntity;
 import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserDirectoryListener;
+import com.example.demo.domain.user.UserStatisticsListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@DynamicUpdate
+@EntityListeners({UserDirectoryListener.class, UserStatisticsListener.class})
 @Table(name= "user_profiles")
 @Getter
 @Setter
@@ -29,7 +36,26 @@ public class UserProfile extends AbstractEntity {
     )
     private String profileImageUrl;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Lets the incremental export find users whose profile changed
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     @OneToOne
     @JoinColumn(name="user_id", nullable=false, unique=true)
     private User user;
+
+    // The birth date as last read or written, tells UserStatisticsListener what an update changed
+    @Transient
+    @JsonIgnore
+    private LocalDate persistedBirthDate;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = Instant.now();
+    }
 }
@@ -0,0 +1,68 @@
+package com.example.demo.domain.userProfile.image;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+// Accepted upload formats, recognised by their leading bytes rather than the declared content type
+public enum ImageType {
+
+  PNG("png", "image/png"),
+  JPEG("jpg", "image/jpeg"),
+  GIF("gif", "image/gif"),
+  WEBP("webp", "image/webp");
+
+  static final int SIGNATURE_BYTES = 12;
+
+  private final String extension;
+  private final String contentType;
+
+  ImageType(String extension, String contentType) {
+    this.extension = extension;
+    this.contentType = contentType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  static Optional<ImageType> sniff(ByteBuffer header) {
+    if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+      return Optional.of(PNG);
+    }
+    if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+      return Optional.of(JPEG);
+    }
+    if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+      return Optional.of(GIF);
+    }
+    if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+      return Optional.of(WEBP);
+    }
+    return Optional.empty();
+  }
+
+  static Optional<ImageType> ofExtension(String extension) {
+    for (ImageType type : values()) {
+      if (type.extension.equals(extension)) {
+        return Optional.of(type);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static boolean startsWith(ByteBuffer header, int offset, int... signature) {
+    if (header.limit() < offset + signature.length) {
+      return false;
+    }
+    for (int i = 0; i < signature.length; i++) {
+      if ((header.get(offset + i) & 0xFF) != signature[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
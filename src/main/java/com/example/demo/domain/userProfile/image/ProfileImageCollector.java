@@ -0,0 +1,115 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.domain.user.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Removes the images and thumbnails that no profile references anymore, left behind by deleted users
+// (also bulk deletions, which bypass the entity listeners) and replaced images. Files younger than the
+// grace period are kept because an upload is stored before the transaction that references it.
+// Temporary files of uploads and thumbnails that never completed are removed once they pass their maximum age.
+@Log4j2
+@Component
+public class ProfileImageCollector implements MeterBinder {
+
+  private final ProfileImageStore store;
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final long graceSeconds;
+  private final long temporaryMaxAgeSeconds;
+
+  private final LongAdder collected = new LongAdder();
+
+  public ProfileImageCollector(ProfileImageStore store, UserRepository userRepository,
+                               PlatformTransactionManager transactionManager, ProfileImageProperties properties) {
+    this.store = store;
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.graceSeconds = properties.getOrphanGraceSeconds();
+    this.temporaryMaxAgeSeconds = properties.getTemporaryMaxAgeSeconds();
+  }
+
+  @Scheduled(fixedDelayString = "${users.images.collect-interval-millis:3600000}",
+             initialDelayString = "${users.images.collect-interval-millis:3600000}")
+  public void collect() {
+    try {
+      Instant now = Instant.now();
+      int deleted = collect(now.minusSeconds(graceSeconds));
+      if (deleted > 0) {
+        log.info("Removed {} unreferenced profile image files", deleted);
+      }
+      int abandoned = collectTemporary(now.minusSeconds(temporaryMaxAgeSeconds));
+      if (abandoned > 0) {
+        log.info("Removed {} abandoned temporary profile image files", abandoned);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      log.warn("Could not collect the unreferenced profile images", e);
+    }
+  }
+
+  // Deletes the unreferenced files last modified before the cutoff
+  int collect(Instant cutoff) throws IOException {
+    Set<String> referenced = readOnlyTransaction.execute(status -> {
+      try (Stream<String> urls = userRepository.streamProfileImageUrls()) {
+        return urls.map(url -> url.substring(url.lastIndexOf('/') + 1))
+                   .map(ProfileImageStore::hashOf)
+                   .flatMap(Optional::stream)
+                   .collect(Collectors.toSet());
+      }
+    });
+    int deleted = 0;
+    try (Stream<Path> files = store.files()) {
+      Iterator<Path> iterator = files.iterator();
+      while (iterator.hasNext()) {
+        Path file = iterator.next();
+        String hash = ProfileImageStore.hashOf(file.getFileName().toString()).orElseThrow();
+        if (!referenced.contains(hash) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)
+            && Files.deleteIfExists(file)) {
+          deleted++;
+        }
+      }
+    }
+    collected.add(deleted);
+    return deleted;
+  }
+
+  // Deletes the temporary files last modified before the cutoff
+  int collectTemporary(Instant cutoff) throws IOException {
+    int deleted = 0;
+    try (Stream<Path> files = store.temporaryFiles()) {
+      Iterator<Path> iterator = files.iterator();
+      while (iterator.hasNext()) {
+        Path file = iterator.next();
+        if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+          deleted++;
+        }
+      }
+    }
+    collected.add(deleted);
+    return deleted;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("users.images.collected", collected, LongAdder::sum)
+                   .register(registry);
+  }
+}
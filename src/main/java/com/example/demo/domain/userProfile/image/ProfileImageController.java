@@ -0,0 +1,167 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserDetailsImpl;
+import com.example.demo.domain.user.UserVersion;
+import com.example.demo.domain.user.dto.UserDTO;
+import com.example.demo.domain.user.dto.UserMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+@RestController
+@RequestMapping("/user")
+public class ProfileImageController {
+
+  // Tomcat writes the file with sendfile once the servlet returns, the bytes never pass through the JVM heap
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private final ProfileImageService profileImageService;
+  private final ProfileImageStore store;
+  private final UserMapper userMapper;
+  private final long maxBytes;
+  private final String cacheControl;
+
+  @Autowired
+  public ProfileImageController(ProfileImageService profileImageService, ProfileImageStore store,
+                                UserMapper userMapper, ProfileImageProperties properties) {
+    this.profileImageService = profileImageService;
+    this.store = store;
+    this.userMapper = userMapper;
+    this.maxBytes = properties.getMaxBytes();
+    this.cacheControl = "public, max-age=" + properties.getCacheMaxAgeSeconds() + ", immutable";
+  }
+
+  // The raw image is the request body, it is streamed to the store and never read into memory as a whole
+  @PutMapping(value = "/me/image", consumes = {"image/*", "application/octet-stream"})
+  @PreAuthorize("hasAuthority('USER_MODIFY')")
+  public ResponseEntity<UserDTO> replaceOwnImage(@AuthenticationPrincipal UserDetailsImpl principal,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 HttpServletRequest request) throws IOException {
+    if (request.getContentLengthLong() > maxBytes) {
+      throw new ProfileImageTooLargeException(maxBytes);
+    }
+    String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    User user = profileImageService.replace(principal.user().getId(), Channels.newChannel(request.getInputStream()),
+        baseUrl, ifMatch);
+    return ResponseEntity.ok().eTag(UserVersion.of(user).etag()).body(userMapper.toDTO(user));
+  }
+
+  // File names are content hashes, so a name is its own ETag and the response can be cached forever
+  @GetMapping("/images/{fileName}")
+  public void serveImage(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    Optional<Path> image = store.resolve(fileName);
+    if (image.isEmpty()) {
+      redirectToOriginal(fileName, response);
+      return;
+    }
+    String etag = "\"" + fileName + "\"";
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+      return;
+    }
+    response.setContentType(store.typeOf(fileName).orElseThrow().getContentType());
+
+    Path path = image.get();
+    long length = Files.size(path);
+    long start = 0;
+    long end = length - 1;
+    List<HttpRange> ranges = requestedRanges(request, etag);
+    // several ranges would need a multipart response, the whole file is sent instead
+    if (ranges.size() == 1) {
+      try {
+        start = ranges.get(0).getRangeStart(length);
+        end = ranges.get(0).getRangeEnd(length);
+      }
+      catch (IllegalArgumentException e) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        return;
+      }
+      response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    }
+    response.setContentLengthLong(end - start + 1);
+    send(path, start, end - start + 1, request, response);
+  }
+
+  // Range is ignored if If-Range names another version or the header is malformed
+  private static List<HttpRange> requestedRanges(HttpServletRequest request, String etag) {
+    String range = request.getHeader(HttpHeaders.RANGE);
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+      return List.of();
+    }
+    try {
+      return HttpRange.parseRanges(range);
+    }
+    catch (IllegalArgumentException e) {
+      return List.of();
+    }
+  }
+
+  private static void send(Path path, long start, long count, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+    // a buffering wrapper (X-SQL-Count headers) has to see the body, sendfile would bypass it
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+        && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+      request.setAttribute(SENDFILE_FILENAME, path.toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, start + count);
+      return;
+    }
+    // without sendfile the bytes are copied through a heap buffer into the servlet stream, not zero-copy
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      long remaining = count;
+      while (remaining > 0) {
+        long transferred = file.transferTo(position, remaining, out);
+        if (transferred <= 0) {
+          break;
+        }
+        position += transferred;
+        remaining -= transferred;
+      }
+    }
+  }
+
+  // Thumbnails that are not generated (yet) point at the original without being cached
+  private void redirectToOriginal(String fileName, HttpServletResponse response) {
+    String original = store.originalOf(fileName).orElseThrow(NoSuchElementException::new);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    response.setHeader(HttpHeaders.LOCATION, original);
+    response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.domain.userProfile.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("users.images")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ProfileImageProperties {
+
+  private String directory = "data/profile-images";
+  // prefix of the stored profileImageUrl, the current request's host is used when empty
+  private String publicBaseUrl = "";
+  private long maxBytes = 5 * 1024 * 1024;
+  // larger images are stored but get no thumbnail, protects the pool against decompression bombs
+  private long maxPixels = 40_000_000;
+  // thumbnails fit into a square of this size
+  private int thumbnailSize = 256;
+  private int thumbnailPoolSize = 2;
+  private int thumbnailQueueCapacity = 64;
+  private long cacheMaxAgeSeconds = 31_536_000;
+  // unreferenced files are only collected after this age, uploads are stored before their reference commits
+  private long orphanGraceSeconds = 86_400;
+  // temporary files outlive their request only when it failed hard, an upload never takes this long
+  private long temporaryMaxAgeSeconds = 3_600;
+
+}
@@ -0,0 +1,15 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.domain.user.User;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.UUID;
+
+public interface ProfileImageService {
+
+  String IMAGES_PATH = "/user/images/";
+
+  // Stores the image and points the profile at it, ifMatch is the optional If-Match header.
+  // baseUrl is used for the profileImageUrl unless users.images.public-base-url is set.
+  User replace(UUID userId, ReadableByteChannel image, String baseUrl, String ifMatch) throws IOException;
+}
@@ -0,0 +1,65 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserRepository;
+import com.example.demo.domain.user.UserVersion;
+import com.example.demo.domain.userProfile.UserProfile;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// The upload is streamed to the store before the transaction starts,
+// a slow client therefore never holds a database connection
+@Service
+public class ProfileImageServiceImpl implements ProfileImageService {
+
+  private final ProfileImageStore store;
+  private final ThumbnailGenerator thumbnailGenerator;
+  private final UserRepository userRepository;
+  private final PrincipalCache principalCache;
+  private final TransactionTemplate transactionTemplate;
+  private final String publicBaseUrl;
+
+  @Autowired
+  public ProfileImageServiceImpl(ProfileImageStore store, ThumbnailGenerator thumbnailGenerator,
+                                 UserRepository userRepository, PrincipalCache principalCache,
+                                 TransactionTemplate transactionTemplate, ProfileImageProperties properties) {
+    this.store = store;
+    this.thumbnailGenerator = thumbnailGenerator;
+    this.userRepository = userRepository;
+    this.principalCache = principalCache;
+    this.transactionTemplate = transactionTemplate;
+    this.publicBaseUrl = properties.getPublicBaseUrl();
+  }
+
+  @Override
+  public User replace(UUID userId, ReadableByteChannel image, String baseUrl, String ifMatch) throws IOException {
+    StoredImage stored = store.store(image);
+    String url = (publicBaseUrl.isEmpty() ? baseUrl : publicBaseUrl) + IMAGES_PATH + stored.fileName();
+
+    User user = transactionTemplate.execute(status -> {
+      User current = userRepository.findById(userId).orElseThrow(NoSuchElementException::new);
+      if (ifMatch != null && !UserVersion.of(current).matches(ifMatch)) {
+        throw new OptimisticLockingFailureException("User " + userId + " has been modified in the meantime");
+      }
+      UserProfile profile = current.getProfile();
+      if (profile == null) {
+        profile = new UserProfile();
+        profile.setUser(current);
+        current.setProfile(profile);
+      }
+      profile.setProfileImageUrl(url);
+      userRepository.flush();
+      return current;
+    });
+    principalCache.evict(userId);
+    thumbnailGenerator.schedule(stored);
+    return user;
+  }
+}
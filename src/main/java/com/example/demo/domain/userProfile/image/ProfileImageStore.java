@@ -0,0 +1,173 @@
+package com.example.demo.domain.userProfile.image;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+// Content-addressed image files: <directory>/<first two hex digits>/<sha256>.<extension>.
+// Identical uploads share one file and a name never changes its content, which is what allows
+// the files to be cached forever. Files that no profile references are removed by ProfileImageCollector.
+@Component
+public class ProfileImageStore {
+
+  static final String THUMBNAIL_SUFFIX = ".thumb.png";
+
+  private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})\\.(png|jpg|gif|webp|thumb\\.png)");
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path root;
+  private final Path uploads;
+  private final long maxBytes;
+
+  public ProfileImageStore(ProfileImageProperties properties) {
+    this.root = Path.of(properties.getDirectory()).toAbsolutePath();
+    this.uploads = root.resolve("uploads");
+    this.maxBytes = properties.getMaxBytes();
+    try {
+      Files.createDirectories(uploads);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Cannot create the profile image directory " + root, e);
+    }
+  }
+
+  // Streams the upload to a temporary file while hashing it, then moves it to its content address.
+  // Only one buffer of the upload is in memory at any time.
+  public StoredImage store(ReadableByteChannel source) throws IOException {
+    MessageDigest digest = sha256();
+    Path temporary = Files.createTempFile(uploads, "upload-", ".tmp");
+    try {
+      long size = 0;
+      ImageType type;
+      try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (source.read(buffer) >= 0) {
+          buffer.flip();
+          size += buffer.remaining();
+          if (size > maxBytes) {
+            throw new ProfileImageTooLargeException(maxBytes);
+          }
+          buffer.mark();
+          digest.update(buffer);
+          buffer.reset();
+          while (buffer.hasRemaining()) {
+            target.write(buffer);
+          }
+          buffer.clear();
+        }
+        ByteBuffer header = ByteBuffer.allocate(ImageType.SIGNATURE_BYTES);
+        target.read(header, 0);
+        header.flip();
+        type = ImageType.sniff(header).orElseThrow(UnsupportedImageTypeException::new);
+        target.force(false);
+      }
+
+      String hash = HexFormat.of().formatHex(digest.digest());
+      Path destination = pathOf(hash + "." + type.getExtension());
+      Files.createDirectories(destination.getParent());
+      try {
+        Files.move(temporary, destination, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (FileAlreadyExistsException e) {
+        // the same image was uploaded before, the new modification time keeps the collector away from it
+        // until the new reference is committed
+        Files.setLastModifiedTime(destination, FileTime.from(Instant.now()));
+      }
+      return new StoredImage(hash, type, destination, size);
+    }
+    finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  // Names outside of the store's pattern are never resolved, so requests cannot reach other files
+  public Optional<Path> resolve(String fileName) {
+    if (!FILE_NAME.matcher(fileName).matches()) {
+      return Optional.empty();
+    }
+    Path path = pathOf(fileName);
+    return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+  }
+
+  // Thumbnails are always PNG
+  public Optional<ImageType> typeOf(String fileName) {
+    Matcher matcher = FILE_NAME.matcher(fileName);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    return fileName.endsWith(THUMBNAIL_SUFFIX) ? Optional.of(ImageType.PNG) : ImageType.ofExtension(matcher.group(2));
+  }
+
+  // Images and thumbnails, the caller has to close the stream
+  public Stream<Path> files() throws IOException {
+    return Files.find(root, 2, (path, attributes) -> attributes.isRegularFile()
+                                                     && !path.startsWith(uploads)
+                                                     && FILE_NAME.matcher(path.getFileName().toString()).matches());
+  }
+
+  // Temporary uploads and thumbnails, a crash or a killed request can leave them behind
+  public Stream<Path> temporaryFiles() throws IOException {
+    return Files.find(uploads, 1, (path, attributes) -> attributes.isRegularFile()
+                                                        && path.getFileName().toString().endsWith(".tmp"));
+  }
+
+  // The content hash in the name of an image or thumbnail
+  public static Optional<String> hashOf(String fileName) {
+    Matcher matcher = FILE_NAME.matcher(fileName);
+    return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+  }
+
+  public Path thumbnailPath(StoredImage image) {
+    return pathOf(image.thumbnailFileName());
+  }
+
+  // Thumbnails are written next to the image and only become visible once complete
+  Path temporaryFile() throws IOException {
+    return Files.createTempFile(uploads, "thumbnail-", ".tmp");
+  }
+
+  // The image a thumbnail belongs to, used while the thumbnail is not generated (yet)
+  public Optional<String> originalOf(String thumbnailFileName) {
+    if (!thumbnailFileName.endsWith(THUMBNAIL_SUFFIX)) {
+      return Optional.empty();
+    }
+    String hash = thumbnailFileName.substring(0, thumbnailFileName.length() - THUMBNAIL_SUFFIX.length());
+    for (ImageType type : ImageType.values()) {
+      String fileName = hash + "." + type.getExtension();
+      if (resolve(fileName).isPresent()) {
+        return Optional.of(fileName);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Path pathOf(String fileName) {
+    return root.resolve(fileName.substring(0, 2)).resolve(fileName);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.domain.userProfile.image;
+
+public class ProfileImageTooLargeException extends RuntimeException {
+
+  public ProfileImageTooLargeException(long maxBytes) {
+    super("Profile images are limited to " + maxBytes + " bytes");
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.domain.userProfile.image;
+
+import java.nio.file.Path;
+
+// An image in the store, named by the SHA-256 of its content
+public record StoredImage(String hash, ImageType type, Path path, long size) {
+
+  public String fileName() {
+    return hash + "." + type.getExtension();
+  }
+
+  public String thumbnailFileName() {
+    return hash + ProfileImageStore.THUMBNAIL_SUFFIX;
+  }
+}
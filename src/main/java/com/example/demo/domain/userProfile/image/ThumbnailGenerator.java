@@ -0,0 +1,159 @@
+package com.example.demo.domain.userProfile.image;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+// Scales uploaded images down on a small bounded pool, so decoding large photos never runs on request threads.
+// When the queue is full the thumbnail is skipped, its URL then redirects to the original image.
+@Log4j2
+@Component
+public class ThumbnailGenerator implements MeterBinder {
+
+  private final ProfileImageStore store;
+  private final ThreadPoolExecutor executor;
+  private final int thumbnailSize;
+  private final long maxPixels;
+
+  private final LongAdder generated = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  public ThumbnailGenerator(ProfileImageStore store, ProfileImageProperties properties) {
+    this.store = store;
+    this.thumbnailSize = properties.getThumbnailSize();
+    this.maxPixels = properties.getMaxPixels();
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(properties.getThumbnailPoolSize(), properties.getThumbnailPoolSize(), 0L,
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getThumbnailQueueCapacity()), runnable -> {
+          Thread thread = new Thread(runnable, "profile-thumbnails-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public void schedule(StoredImage image) {
+    // ImageIO has no WebP decoder, those are served as they are
+    if (image.type() == ImageType.WEBP || Files.exists(store.thumbnailPath(image))) {
+      return;
+    }
+    try {
+      executor.execute(() -> generate(image));
+    }
+    catch (RejectedExecutionException e) {
+      rejected.increment();
+    }
+  }
+
+  void generate(StoredImage image) {
+    try {
+      BufferedImage source = read(image.path());
+      if (source == null) {
+        failed.increment();
+        return;
+      }
+      Path temporary = store.temporaryFile();
+      try {
+        ImageIO.write(scale(source), "png", temporary.toFile());
+        Files.move(temporary, store.thumbnailPath(image), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        generated.increment();
+      }
+      finally {
+        Files.deleteIfExists(temporary);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      failed.increment();
+      log.warn("Could not create the thumbnail of {}", image.fileName(), e);
+    }
+  }
+
+  // Checks the dimensions before decoding and decodes only every n-th pixel of large images,
+  // so the full resolution bitmap is never held in memory
+  private BufferedImage read(Path path) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxPixels) {
+          log.info("Skipping the thumbnail of a {}x{} image", width, height);
+          return null;
+        }
+        ImageReadParam param = reader.getDefaultReadParam();
+        int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+      }
+      finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private BufferedImage scale(BufferedImage source) {
+    double factor = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+    int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+    int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+    BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = thumbnail.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(source, 0, 0, width, height, null);
+    }
+    finally {
+      graphics.dispose();
+    }
+    return thumbnail;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("users.images.thumbnails", generated, LongAdder::sum)
+                   .tag("result", "generated")
+                   .register(registry);
+    FunctionCounter.builder("users.images.thumbnails", rejected, LongAdder::sum)
+                   .tag("result", "rejected")
+                   .register(registry);
+    FunctionCounter.builder("users.images.thumbnails", failed, LongAdder::sum)
+                   .tag("result", "failed")
+                   .register(registry);
+    Gauge.builder("users.images.thumbnails.queued", executor, pool -> pool.getQueue().size())
+         .register(registry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
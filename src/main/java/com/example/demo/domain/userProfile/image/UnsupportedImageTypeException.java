@@ -0,0 +1,8 @@
+package com.example.demo.domain.userProfile.image;
+
+public class UnsupportedImageTypeException extends RuntimeException {
+
+  public UnsupportedImageTypeException() {
+    super("Only PNG, JPEG, GIF and WebP images are accepted");
+  }
+}
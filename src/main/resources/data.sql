@@ -35,7 +35,9 @@ VALUES
     ('21c942db-a275-43f8-bdd6-d048c21bf5ab', 'USER_DEACTIVATE'),
     ('b964fc23-9fea-4ba2-9000-94fad5f0dbe0', 'USER_MODIFY'),
     ('6e12227a-f6bf-4529-86d1-df9b41fe28fb', 'USER_DELETE_OWN_PROFILE'),
-    (gen_random_uuid(), 'USER_READ_OWN_PROFILE')
+    (gen_random_uuid(), 'USER_READ_OWN_PROFILE'),
+    ('0f3c5a9e-7d2b-4e61-9c8a-5b4d3e2f1a07', 'AUDIT_READ'),
+    ('5a1d7c3e-92b4-4f08-b6e1-3c8d0a7f2e94', 'METRICS_READ')
 ON CONFLICT DO NOTHING;
 
 -- =====================================================
@@ -197,3 +199,45 @@ VALUES (
            NULL
        )
 ON CONFLICT DO NOTHING;
+
+-- =====================================================
+-- LAST NAME SORT KEY
+-- =====================================================
+
+-- rows inserted above bypass the JPA callbacks, derive the numeric suffix of the last name here
+UPDATE users
+SET last_name_number = COALESCE(CAST(substring(last_name from '([0-9]{1,18})$') AS bigint), 0);
+
+-- =====================================================
+-- INDEXES
+-- =====================================================
+
+-- admin search: case-insensitive name prefix filters
+CREATE INDEX IF NOT EXISTS idx_users_lower_names
+    ON users (lower(last_name) text_pattern_ops, lower(first_name) text_pattern_ops);
+
+-- admin search and cursor paging on /user and /user/admin/search: numeric last name suffix, names,
+-- id as tiebreaker
+CREATE INDEX IF NOT EXISTS idx_users_last_name_number
+    ON users (last_name_number, last_name, first_name, id);
+
+-- the cursor used to seek on (last_name_number, id) only
+DROP INDEX IF EXISTS idx_users_keyset;
+
+-- incremental export: GET /user/export?updatedSince=...
+CREATE INDEX IF NOT EXISTS idx_users_updated_at
+    ON users (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_user_profiles_updated_at
+    ON user_profiles (updated_at);
+
+-- admin search: age filters are translated into birth_date ranges
+CREATE INDEX IF NOT EXISTS idx_user_profiles_birth_date
+    ON user_profiles (birth_date);
+
+-- audit trail: GET /admin/audit, newest first and per entity
+CREATE INDEX IF NOT EXISTS idx_audit_event_occurred_at
+    ON audit_event (occurred_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_event_entity_id
+    ON audit_event (entity_id, occurred_at DESC);
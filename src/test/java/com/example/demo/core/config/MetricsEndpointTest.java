@@ -0,0 +1,47 @@
+package com.example.demo.core.config;
+
+import com.example.demo.domain.user.AbstractUserApiTest;
+import com.example.demo.domain.user.User;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Tests switch metrics export off by default, the Prometheus registry is only there with the observability
+// auto-configuration
+@AutoConfigureObservability
+class MetricsEndpointTest extends AbstractUserApiTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    user = testData.reset(1).get(0);
+  }
+
+  @Test
+  void scrapingRequiresMetricsRead() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().is4xxClientError());
+    mockMvc.perform(testData.as(user, get("/actuator/prometheus"))).andExpect(status().isForbidden());
+
+    UUID metricsRead = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO authority (id, name) VALUES (?, 'METRICS_READ')", metricsRead);
+    jdbcTemplate.update("INSERT INTO role_authority (role_id, authority_id) SELECT id, ? FROM role WHERE name = 'ADMIN'",
+        metricsRead);
+    testData.rebuild();
+
+    mockMvc.perform(testData.as(user, get("/actuator/prometheus")))
+           .andExpect(status().isOk())
+           .andExpect(content().string(containsString("security_login_attempts_total")));
+  }
+}
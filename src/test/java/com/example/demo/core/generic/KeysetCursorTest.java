@@ -0,0 +1,43 @@
+package com.example.demo.core.generic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+  private static final List<String> ORDER = List.of("lastNameNumber", "lastName", "firstName");
+
+  @Test
+  void roundTripKeepsNullsAndSeparators() {
+    KeysetCursor cursor = new KeysetCursor(ORDER, Arrays.asList("7", "O'Neil\n=Smith", null), UUID.randomUUID());
+
+    assertEquals(cursor, KeysetCursor.decode(cursor.encode(), ORDER));
+  }
+
+  @Test
+  void emptyValueIsNotNull() {
+    KeysetCursor cursor = new KeysetCursor(List.of("lastName"), List.of(""), UUID.randomUUID());
+
+    assertEquals(List.of(""), KeysetCursor.decode(cursor.encode(), List.of("lastName")).sortValues());
+  }
+
+  @Test
+  void cursorOfAnotherOrderIsRejected() {
+    String cursor = new KeysetCursor(List.of("lastNameNumber"), List.of("7"), UUID.randomUUID()).encode();
+
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, ORDER));
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor", ORDER));
+  }
+
+  @Test
+  void idIsTheLastSortKey() {
+    assertEquals(Sort.by("lastNameNumber", "lastName", "firstName", "id"), KeysetCursor.sort(ORDER));
+    assertEquals(Sort.by("id"), KeysetCursor.sort(List.of()));
+  }
+}
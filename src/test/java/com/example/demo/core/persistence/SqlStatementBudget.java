@@ -0,0 +1,35 @@
+package com.example.demo.core.persistence;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Statement budgets for tests. MockMvc requests are checked through the X-SQL-Count header,
+// which requires sql.statements.headers=true, anything else can be measured with count().
+public final class SqlStatementBudget {
+
+  private SqlStatementBudget() {
+  }
+
+  public static ResultMatcher atMost(int statements) {
+    return result -> {
+      String header = result.getResponse().getHeader(SqlStatementFilter.COUNT_HEADER);
+      assertNotNull(header, "No " + SqlStatementFilter.COUNT_HEADER + " header, set sql.statements.headers=true");
+      int count = Integer.parseInt(header);
+      assertTrue(count <= statements, () -> result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+          + " ran " + count + " SQL statements, the budget is " + statements);
+    };
+  }
+
+  public static int count(Runnable work) {
+    SqlStatementStats stats = SqlStatementStats.start();
+    try {
+      work.run();
+    }
+    finally {
+      SqlStatementStats.stop();
+    }
+    return stats.getCount();
+  }
+}
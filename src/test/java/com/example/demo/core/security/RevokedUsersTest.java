@@ -0,0 +1,77 @@
+package com.example.demo.core.security;
+
+import com.example.demo.core.security.helpers.JwtProperties;
+import com.example.demo.domain.user.UserRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Without a transaction revocations apply right away, as they would after commit
+class RevokedUsersTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final UUID anna = UUID.randomUUID();
+  private final UUID bruno = UUID.randomUUID();
+
+  @Test
+  void deletedAndDeactivatedUsersAreRevoked() {
+    RevokedUsers revokedUsers = revokedUsers(true, 60_000);
+
+    revokedUsers.deleted(List.of(anna));
+    revokedUsers.deactivated(List.of(bruno));
+
+    assertTrue(revokedUsers.isRevoked(anna));
+    assertTrue(revokedUsers.isRevoked(bruno));
+    assertFalse(revokedUsers.isRevoked(UUID.randomUUID()));
+
+    revokedUsers.reactivated(List.of(bruno));
+    assertFalse(revokedUsers.isRevoked(bruno));
+  }
+
+  @Test
+  void deactivationsOfOtherInstancesAreRead() {
+    RevokedUsers revokedUsers = revokedUsers(true, 60_000);
+    when(userRepository.findInactiveIdsUpdatedSince(any(Instant.class))).thenReturn(List.of(anna));
+
+    revokedUsers.refresh();
+    assertTrue(revokedUsers.isRevoked(anna));
+
+    // reactivated elsewhere, while a deletion made here stays
+    revokedUsers.deleted(List.of(bruno));
+    when(userRepository.findInactiveIdsUpdatedSince(any(Instant.class))).thenReturn(List.of());
+    revokedUsers.refresh();
+    assertFalse(revokedUsers.isRevoked(anna));
+    assertTrue(revokedUsers.isRevoked(bruno));
+  }
+
+  @Test
+  void entriesEndWithTheTokensTheyRevoke() throws InterruptedException {
+    RevokedUsers revokedUsers = revokedUsers(true, 20);
+
+    revokedUsers.deleted(List.of(anna));
+    Thread.sleep(50);
+
+    assertFalse(revokedUsers.isRevoked(anna));
+  }
+
+  @Test
+  void nothingIsRecordedWhenTheUserIsLoaded() {
+    RevokedUsers revokedUsers = revokedUsers(false, 60_000);
+
+    revokedUsers.deleted(List.of(anna));
+    revokedUsers.refresh();
+
+    assertFalse(revokedUsers.isRevoked(anna));
+  }
+
+  private RevokedUsers revokedUsers(boolean stateless, long expirationMillis) {
+    return new RevokedUsers(userRepository, new JwtProperties(expirationMillis, "uk223", "secret", 0, stateless, 30_000));
+  }
+}
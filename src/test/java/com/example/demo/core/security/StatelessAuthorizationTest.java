@@ -0,0 +1,76 @@
+package com.example.demo.core.security;
+
+import com.example.demo.domain.user.AbstractUserApiTest;
+import com.example.demo.domain.user.User;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The stateless mode trusts the signed claims, only the revocation list stops the tokens of removed users
+@TestPropertySource(properties = {"jwt.stateless=true"})
+class StatelessAuthorizationTest extends AbstractUserApiTest {
+
+  @Autowired
+  private JwtCodec jwtCodec;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(2);
+  }
+
+  @Test
+  void claimsAuthenticateWithoutTheUser() throws Exception {
+    String token = jwtCodec.generate(UUID.randomUUID(), "nobody@example.com", List.of("USER_READ"));
+
+    mockMvc.perform(get("/user/admin/autocomplete").param("prefix", "first")
+                                                   .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+           .andExpect(status().isOk());
+  }
+
+  @Test
+  void tokensOfDeletedUsersAreRejected() throws Exception {
+    User user = users.get(1);
+    autocompleteAs(user).andExpect(status().isOk());
+
+    mockMvc.perform(testData.as(users.get(0), delete("/user/" + user.getId())))
+           .andExpect(status().isNoContent());
+
+    autocompleteAs(user).andExpect(status().is4xxClientError());
+    autocompleteAs(users.get(0)).andExpect(status().isOk());
+  }
+
+  @Test
+  void tokensOfBulkDeactivatedUsersAreRejectedUntilReactivated() throws Exception {
+    User user = users.get(1);
+    String body = "{\"ids\": [\"" + user.getId() + "\"]}";
+    autocompleteAs(user).andExpect(status().isOk());
+
+    bulk("/user/admin/bulk-deactivate", body);
+    autocompleteAs(user).andExpect(status().is4xxClientError());
+
+    bulk("/user/admin/bulk-reactivate", body);
+    autocompleteAs(user).andExpect(status().isOk());
+  }
+
+  private void bulk(String path, String body) throws Exception {
+    mockMvc.perform(testData.as(users.get(0), post(path)).contentType(MediaType.APPLICATION_JSON).content(body))
+           .andExpect(status().isOk());
+  }
+
+  private ResultActions autocompleteAs(User user) throws Exception {
+    return mockMvc.perform(testData.as(user, get("/user/admin/autocomplete")).param("prefix", "first"));
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.core.security.cache;
+
+import com.example.demo.core.security.helpers.PrincipalCacheProperties;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserDetailsImpl;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PrincipalCacheTest {
+
+  private final UUID userId = UUID.randomUUID();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<UUID, UserDetailsImpl> loader = id -> {
+    loads.incrementAndGet();
+    return new UserDetailsImpl(new User(), List.of());
+  };
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void principalIsLoadedOnceUntilEvicted() {
+    PrincipalCache cache = cache(true);
+
+    UserDetailsImpl first = cache.get(userId, loader);
+    assertSame(first, cache.get(userId, loader));
+    assertEquals(1, loads.get());
+
+    cache.evict(userId);
+    cache.get(userId, loader);
+    cache.evictAll(List.of(userId));
+    cache.get(userId, loader);
+    cache.evictAll();
+    cache.get(userId, loader);
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  void disabledCacheAlwaysLoads() {
+    PrincipalCache cache = cache(false);
+
+    cache.get(userId, loader);
+    cache.get(userId, loader);
+
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.estimatedSize());
+  }
+
+  // A request that loads the user before the writing transaction commits must not keep the old state
+  @Test
+  void evictionIsRepeatedAfterCommit() {
+    PrincipalCache cache = cache(true);
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.evict(userId);
+    cache.get(userId, loader);
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    cache.get(userId, loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  private static PrincipalCache cache(boolean enabled) {
+    return new PrincipalCache(new PrincipalCacheProperties(enabled, 100, 60_000));
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.core.security.hashing;
+
+import com.example.demo.core.security.helpers.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The single worker only starts once the test opens the gate, until then every task stays in the queue
+class BoundedPasswordEncoderTest {
+
+  private final CountDownLatch gate = new CountDownLatch(1);
+  private SimpleMeterRegistry registry;
+  private BoundedPasswordEncoder encoder;
+
+  @BeforeEach
+  void setUp() {
+    encoder = encoder(50);
+  }
+
+  private BoundedPasswordEncoder encoder(long queueWaitMillis) {
+    PasswordHashingProperties properties = new PasswordHashingProperties();
+    properties.setPoolSize(1);
+    properties.setQueueCapacity(1);
+    properties.setQueueWaitMillis(queueWaitMillis);
+    properties.setTimeoutMillis(5_000);
+    properties.setMinStrength(4);
+    properties.setMaxStrength(4);
+    ThreadFactory gated = runnable -> {
+      Thread thread = new Thread(() -> {
+        try {
+          gate.await();
+        }
+        catch (InterruptedException e) {
+          return;
+        }
+        runnable.run();
+      });
+      thread.setDaemon(true);
+      return thread;
+    };
+    BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(properties, gated);
+    registry = new SimpleMeterRegistry();
+    encoder.bindTo(registry);
+    return encoder;
+  }
+
+  @AfterEach
+  void tearDown() {
+    gate.countDown();
+    encoder.shutdown();
+  }
+
+  @Test
+  void saturatedPoolFailsFast() {
+    // the first task is handed to the new worker directly, the second one is queued
+    for (int i = 0; i < 2; i++) {
+      long start = System.nanoTime();
+
+      assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("secret"));
+
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+    }
+    // the withdrawn task gave its queue slot back
+    assertEquals(0, registry.get("security.password.hashing.queued").gauge().value());
+  }
+
+  @Test
+  void queueWaitCoversAFullQueue() {
+    PasswordHashingProperties properties = new PasswordHashingProperties();
+    properties.setPoolSize(8);
+    properties.setQueueCapacity(64);
+    properties.setTargetMillis(250);
+
+    assertEquals(2_000, BoundedPasswordEncoder.queueWaitMillis(properties));
+
+    properties.setQueueCapacity(4);
+    assertEquals(250, BoundedPasswordEncoder.queueWaitMillis(properties));
+
+    properties.setQueueWaitMillis(100);
+    assertEquals(100, BoundedPasswordEncoder.queueWaitMillis(properties));
+  }
+
+  @Test
+  void hashesOnceThePoolIsFree() {
+    gate.countDown();
+
+    String hash = encoder.encode("secret");
+
+    assertTrue(encoder.matches("secret", hash));
+  }
+
+  @Test
+  void batchReportsRejectedPasswordsOneByOne() throws Exception {
+    encoder.shutdown();
+    encoder = encoder(5_000);
+    // one login holds the worker, the other one the only queue slot
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (registry.get("security.password.hashing.queued").gauge().value() < 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(Arrays.asList(null, null), encoder.encodeAll(List.of("a", "b")));
+
+    gate.countDown();
+    assertTrue(encoder.matches("first", first.get(5, TimeUnit.SECONDS)));
+    assertTrue(encoder.matches("second", second.get(5, TimeUnit.SECONDS)));
+    List<String> hashes = encoder.encodeAll(List.of("a", "b"));
+    assertTrue(encoder.matches("a", hashes.get(0)));
+    assertTrue(encoder.matches("b", hashes.get(1)));
+  }
+}
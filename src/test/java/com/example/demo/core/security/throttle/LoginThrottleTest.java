@@ -0,0 +1,59 @@
+package com.example.demo.core.security.throttle;
+
+import com.example.demo.domain.user.AbstractUserApiTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every test uses its own client address, the buckets live as long as the context
+@TestPropertySource(properties = {"security.login-throttle.address-burst=3",
+                                  "security.login-throttle.address-refill-millis=60000",
+                                  "security.login-throttle.email-burst=2",
+                                  "security.login-throttle.email-refill-millis=60000"})
+class LoginThrottleTest extends AbstractUserApiTest {
+
+  @Test
+  void guessingOnePasswordIsThrottledByEmail() throws Exception {
+    login("10.0.0.1", "victim@example.com").andExpect(status().isUnauthorized());
+    login("10.0.0.2", "victim@example.com").andExpect(status().isUnauthorized());
+
+    login("10.0.0.3", "victim@example.com")
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, matchesPattern("[1-9][0-9]*")));
+  }
+
+  @Test
+  void oneAddressIsThrottledAcrossEmails() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      login("10.0.1.1", "user" + i + "@example.com").andExpect(status().isUnauthorized());
+    }
+
+    login("10.0.1.1", "other@example.com").andExpect(status().isTooManyRequests())
+                                          .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    // probing for accounts draws from the same bucket
+    mockMvc.perform(get("/user/email-available").param("email", "other@example.com")
+                                                .with(request -> {
+                                                  request.setRemoteAddr("10.0.1.1");
+                                                  return request;
+                                                }))
+           .andExpect(status().isTooManyRequests());
+    login("10.0.1.2", "other@example.com").andExpect(status().isUnauthorized());
+  }
+
+  private ResultActions login(String address, String email) throws Exception {
+    return mockMvc.perform(post("/user/login").contentType(MediaType.APPLICATION_JSON)
+                                              .content("{\"email\": \"" + email + "\", \"password\": \"wrong\"}")
+                                              .with(request -> {
+                                                request.setRemoteAddr(address);
+                                                return request;
+                                              }));
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.core.security.throttle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bursts of three with one token per second, the clock is passed in
+class TokenBucketTableTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final TokenBucketTable table = new TokenBucketTable(3, Duration.ofSeconds(1), 100);
+
+  @Test
+  void burstIsAvailableAtOnce() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, table.tryAcquire("a", now));
+    }
+
+    assertEquals(SECOND, table.tryAcquire("a", now));
+    assertEquals(SECOND / 2, table.tryAcquire("a", now + SECOND / 2));
+    // rejected attempts take no token
+    assertEquals(SECOND, table.tryAcquire("a", now));
+  }
+
+  @Test
+  void tokensRefillOneByOne() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 3; i++) {
+      table.tryAcquire("a", now);
+    }
+
+    assertEquals(0, table.tryAcquire("a", now + SECOND));
+    assertTrue(table.tryAcquire("a", now + SECOND) > 0);
+    // a bucket never holds more than the burst, however long it was idle
+    long later = now + 60 * SECOND;
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, table.tryAcquire("a", later));
+    }
+    assertTrue(table.tryAcquire("a", later) > 0);
+  }
+
+  @Test
+  void keysHaveTheirOwnBuckets() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 3; i++) {
+      table.tryAcquire("a", now);
+    }
+
+    assertEquals(0, table.tryAcquire("b", now));
+  }
+
+  @Test
+  void concurrentAttemptsTakeEachTokenOnce() throws Exception {
+    TokenBucketTable wide = new TokenBucketTable(100, Duration.ofSeconds(1), 100);
+    long now = 1_000 * SECOND;
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          int acquired = 0;
+          for (int i = 0; i < 1_000; i++) {
+            if (wide.tryAcquire("a", now) == 0) {
+              acquired++;
+            }
+          }
+          return acquired;
+        }));
+      }
+      start.countDown();
+      int acquired = 0;
+      for (Future<Integer> result : results) {
+        acquired += result.get(10, TimeUnit.SECONDS);
+      }
+
+      assertEquals(100, acquired);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.domain.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A buffer capacity of 2 and batches of one event make every overflow easy to provoke
+class AuditLogTest {
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private AuditLog auditLog;
+
+  @AfterEach
+  void tearDown() {
+    auditLog.stop();
+  }
+
+  @Test
+  void dropOverflowLosesAndCountsTheEvent() {
+    auditLog = auditLog(AuditProperties.Overflow.DROP);
+
+    // the writer isn't started, so nothing frees a slot
+    for (int i = 0; i < 3; i++) {
+      record();
+    }
+    assertEquals(1, count("dropped"));
+
+    auditLog.start();
+    auditLog.stop();
+    assertEquals(2, count("written"));
+  }
+
+  @Test
+  void blockOverflowWaitsForTheWriter() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(batchUpdate()).thenAnswer(invocation -> {
+      writing.countDown();
+      assertTrue(release.await(5, TimeUnit.SECONDS));
+      return new int[0][];
+    });
+    auditLog = auditLog(AuditProperties.Overflow.BLOCK);
+    auditLog.start();
+
+    record();
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+    // the writer is stuck with the first event, these two fill the buffer
+    record();
+    record();
+    CompletableFuture<Void> blocked = CompletableFuture.runAsync(this::record);
+
+    assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+    release.countDown();
+    blocked.get(5, TimeUnit.SECONDS);
+    auditLog.stop();
+
+    assertEquals(4, count("written"));
+    assertEquals(0, count("dropped"));
+  }
+
+  @Test
+  void writerSurvivesFailedBatches() {
+    when(batchUpdate()).thenThrow(new IllegalStateException("broken driver"))
+                       .thenReturn(new int[0][]);
+    auditLog = auditLog(AuditProperties.Overflow.DROP);
+
+    record();
+    record();
+    auditLog.start();
+    auditLog.stop();
+
+    assertEquals(1, count("failed"));
+    assertEquals(1, count("written"));
+  }
+
+  private AuditLog auditLog(AuditProperties.Overflow overflow) {
+    AuditLog log = new AuditLog(jdbcTemplate, new AuditProperties(true, 2, 1, 1, overflow));
+    log.bindTo(registry);
+    return log;
+  }
+
+  private void record() {
+    auditLog.record(AuditAction.CREATED, "User", UUID.randomUUID());
+  }
+
+  private int[][] batchUpdate() {
+    return jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+  }
+
+  private double count(String result) {
+    return registry.get("audit.events").tag("result", result).functionCounter().count();
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.domain.role;
+
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.authority.Authority;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoleSnapshotTest {
+
+  private final RoleRepository roleRepository = mock(RoleRepository.class);
+  private final RoleSnapshot roleSnapshot = new RoleSnapshot(roleRepository);
+
+  private final Authority read = new Authority(UUID.randomUUID(), "USER_READ");
+  private final Authority modify = new Authority(UUID.randomUUID(), "USER_MODIFY");
+  private final Role user = new Role(RoleSnapshot.USER_ROLE_ID, "USER", Set.of(read));
+  private final Role admin = new Role(UUID.randomUUID(), "ADMIN", Set.of(read, modify));
+
+  @BeforeEach
+  void setUp() {
+    when(roleRepository.findAllWithAuthorities()).thenReturn(List.of(user, admin));
+    roleSnapshot.refresh();
+  }
+
+  @Test
+  void roleSetsShareOneAuthorityList() {
+    List<GrantedAuthority> authorities = roleSnapshot.authoritiesOf(Set.of(user, admin));
+
+    assertSame(authorities, roleSnapshot.authoritiesOf(Set.of(admin, user)));
+    assertEquals(Set.of("USER_READ", "USER_MODIFY"), names(authorities));
+    // the authority objects themselves are shared across role sets and token claims
+    GrantedAuthority readOfUser = roleSnapshot.authoritiesOf(Set.of(user)).get(0);
+    assertSame(readOfUser, roleSnapshot.authoritiesOf(List.of("USER_READ")).get(0));
+    assertSame(roleSnapshot.authoritiesOf(List.of("USER_READ")), roleSnapshot.authoritiesOf(List.of("USER_READ")));
+  }
+
+  @Test
+  void refreshReplacesTheSnapshot() {
+    List<GrantedAuthority> before = roleSnapshot.authoritiesOf(Set.of(user));
+    Role changed = new Role(RoleSnapshot.USER_ROLE_ID, "USER", Set.of(read, modify));
+    when(roleRepository.findAllWithAuthorities()).thenReturn(List.of(changed, admin));
+
+    roleSnapshot.refresh();
+
+    List<GrantedAuthority> after = roleSnapshot.authoritiesOf(Set.of(user));
+    assertNotSame(before, after);
+    assertEquals(Set.of("USER_READ", "USER_MODIFY"), names(after));
+  }
+
+  @Test
+  void defaultRoleComesFromTheSnapshot() {
+    assertSame(user, roleSnapshot.defaultUserRole());
+    verify(roleRepository, never()).findById(any());
+  }
+
+  @Test
+  void roleChangesEvictPrincipalsAndRefresh() {
+    PrincipalCache principalCache = mock(PrincipalCache.class);
+    RoleService roleService = new RoleServiceImpl(roleRepository, principalCache, roleSnapshot);
+    when(roleRepository.save(admin)).thenReturn(admin);
+
+    roleService.save(admin);
+
+    verify(principalCache).evictAll();
+    // no transaction, so the snapshot is reloaded right away
+    verify(roleRepository, times(2)).findAllWithAuthorities();
+  }
+
+  private static Set<String> names(List<GrantedAuthority> authorities) {
+    return Set.copyOf(authorities.stream()
+                                 .map(GrantedAuthority::getAuthority)
+                                 .toList());
+  }
+}
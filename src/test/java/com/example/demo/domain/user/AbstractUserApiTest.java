@@ -0,0 +1,25 @@
+package com.example.demo.domain.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Spring Boot tests of the REST API on H2, seeded through UserTestData. Subclasses change properties with
+// @TestPropertySource, its properties take precedence over the ones here.
+@SpringBootTest(properties = {"spring.sql.init.mode=never",
+                              "security.principal-cache.enabled=false",
+                              "audit.enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(UserTestData.class)
+public abstract class AbstractUserApiTest {
+
+  @Autowired
+  protected MockMvc mockMvc;
+
+  @Autowired
+  protected UserTestData testData;
+}
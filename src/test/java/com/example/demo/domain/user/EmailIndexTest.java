@@ -0,0 +1,87 @@
+package com.example.demo.domain.user;
+
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Without a transaction the emails are added right away, as they would be after commit
+class EmailIndexTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private EmailIndex emailIndex;
+
+  @BeforeEach
+  void setUp() {
+    emailIndex = new EmailIndex(userRepository, mock(PlatformTransactionManager.class), 1_000, 0.001);
+    when(userRepository.existsByEmail(anyString())).thenReturn(true);
+  }
+
+  @Test
+  void unknownEmailsAreFreeWithoutALookup() {
+    when(userRepository.streamAllEmails()).thenReturn(Stream.of("anna@example.com"));
+    emailIndex.rebuild();
+
+    assertFalse(emailIndex.isTaken("bruno@example.com"));
+    assertTrue(emailIndex.isTaken(" Anna@Example.com"));
+    verify(userRepository, never()).existsByEmail("bruno@example.com");
+  }
+
+  @Test
+  void emailsAddedDuringARebuildAreReplayed() {
+    // the stream reads the state from before the insert, which commits while it is consumed
+    when(userRepository.streamAllEmails()).thenReturn(Stream.of("anna@example.com")
+                                                            .peek(email -> emailIndex.added("bruno@example.com")));
+    emailIndex.rebuild();
+
+    assertTrue(emailIndex.isTaken("bruno@example.com"));
+  }
+
+  @Test
+  void onlyInsertsAndEmailChangesAreAdded() {
+    EmailIndex index = spy(emailIndex);
+    UserEmailListener listener = new UserEmailListener(new StaticListableBeanFactory(Map.of("emailIndex", index))
+                                                           .getBeanProvider(EmailIndex.class));
+    User user = new User().setEmail("anna@example.com");
+
+    listener.persisted(user);
+    verify(index).added("anna@example.com");
+
+    user.setFirstName("Anna");
+    listener.updated(user);
+    user.setEmail("Anna@Example.com");
+    listener.updated(user);
+    verify(index, times(1)).added(anyString());
+    verify(index, never()).removed(anyString());
+
+    user.setEmail("bruno@example.com");
+    listener.updated(user);
+    verify(index).added("bruno@example.com");
+    verify(index).removed("Anna@Example.com");
+  }
+
+  @Test
+  void loadedUsersKeepTheirEmail() {
+    EmailIndex index = spy(emailIndex);
+    UserEmailListener listener = new UserEmailListener(new StaticListableBeanFactory(Map.of("emailIndex", index))
+                                                           .getBeanProvider(EmailIndex.class));
+    User user = new User().setEmail("anna@example.com");
+
+    listener.loaded(user);
+    listener.updated(user);
+
+    verify(index, never()).added(anyString());
+  }
+}
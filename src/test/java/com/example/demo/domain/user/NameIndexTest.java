@@ -0,0 +1,92 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserNameDTO;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Without a transaction the changes are applied right away, as they would be after commit
+class NameIndexTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private NameIndex nameIndex;
+
+  private final UserNameDTO anna = new UserNameDTO(UUID.randomUUID(), "Anna", "Meier");
+  private final UserNameDTO bruno = new UserNameDTO(UUID.randomUUID(), "Bruno", "Meister");
+
+  @BeforeEach
+  void setUp() {
+    nameIndex = new NameIndex(userRepository, mock(PlatformTransactionManager.class));
+  }
+
+  @Test
+  void blankPrefixFindsNothingBeforeWarmUp() {
+    assertTrue(nameIndex.search(" ", 10).isEmpty());
+    assertTrue(nameIndex.search("", 10).isEmpty());
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void searchesTheRebuiltIndex() {
+    when(userRepository.streamAllNames()).thenReturn(Stream.of(anna, bruno));
+    nameIndex.rebuild();
+
+    assertEquals(List.of(anna, bruno), nameIndex.search("mei", 10));
+    assertEquals(List.of(anna), nameIndex.search("mei", 1));
+    assertTrue(nameIndex.search("  ", 10).isEmpty());
+  }
+
+  @Test
+  void appliesChangesToTheWarmIndex() {
+    when(userRepository.streamAllNames()).thenReturn(Stream.of(anna, bruno));
+    nameIndex.rebuild();
+
+    nameIndex.removed(bruno.id());
+    nameIndex.updated(user(anna.id(), "Anna", "Keller"));
+
+    assertTrue(nameIndex.search("mei", 10).isEmpty());
+    assertEquals(List.of(new UserNameDTO(anna.id(), "Anna", "Keller")), nameIndex.search("kel", 10));
+  }
+
+  @Test
+  void changesDuringARebuildWinOverTheStreamedRows() {
+    // the stream reads the state from before the changes, which commit while it is consumed
+    when(userRepository.streamAllNames()).thenReturn(Stream.of(anna, bruno)
+                                                           .peek(name -> {
+                                                             if (name == anna) {
+                                                               nameIndex.removed(bruno.id());
+                                                               nameIndex.updated(user(anna.id(), "Anna", "Keller"));
+                                                             }
+                                                           }));
+    nameIndex.rebuild();
+
+    assertTrue(nameIndex.search("mei", 10).isEmpty());
+    assertEquals(1, nameIndex.search("anna", 10).size());
+    assertEquals("Keller", nameIndex.search("anna", 10).get(0).lastName());
+  }
+
+  @Test
+  void removedAllRemovesEveryUser() {
+    when(userRepository.streamAllNames()).thenReturn(Stream.of(anna, bruno));
+    nameIndex.rebuild();
+
+    nameIndex.removedAll(List.of(anna.id(), bruno.id()));
+
+    assertTrue(nameIndex.search("mei", 10).isEmpty());
+  }
+
+  private static User user(UUID id, String firstName, String lastName) {
+    User user = new User().setFirstName(firstName).setLastName(lastName);
+    user.setId(id);
+    return user;
+  }
+}
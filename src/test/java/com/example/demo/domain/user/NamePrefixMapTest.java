@@ -0,0 +1,98 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserNameDTO;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamePrefixMapTest {
+
+  private final NamePrefixMap names = new NamePrefixMap();
+
+  private final UserNameDTO anna = name("Anna", "Meier");
+  private final UserNameDTO annaLuisa = name("Anna Luisa", "Zeller");
+  private final UserNameDTO jurg = name("J\u00fcrg", "M\u00fcller");
+  private final UserNameDTO max = name("Max", "Annen");
+
+  @BeforeEach
+  void setUp() {
+    List.of(anna, annaLuisa, jurg, max).forEach(names::put);
+  }
+
+  @Test
+  void findsFirstAndLastNames() {
+    // key order: "anna luisa zeller", "anna meier", "annen max"
+    assertEquals(List.of(annaLuisa, anna, max), names.search("ann", 10));
+    assertEquals(List.of(anna), names.search("meier", 10));
+  }
+
+  @Test
+  void findsFullNamesInBothOrders() {
+    assertEquals(List.of(anna), names.search("anna mei", 10));
+    assertEquals(List.of(anna), names.search("meier an", 10));
+    assertEquals(List.of(annaLuisa), names.search("anna luisa z", 10));
+  }
+
+  @Test
+  void ignoresCaseAccentsAndWhitespace() {
+    assertEquals(List.of(jurg), names.search("MULL", 10));
+    assertEquals(List.of(jurg), names.search("m\u00fcller", 10));
+    assertEquals(List.of(jurg), names.search("  jurg   mu ", 10));
+  }
+
+  @Test
+  void blankPrefixFindsNothing() {
+    assertTrue(names.search("", 10).isEmpty());
+    assertTrue(names.search("   ", 10).isEmpty());
+    assertTrue(names.search(null, 10).isEmpty());
+  }
+
+  @Test
+  void stopsAtTheLimit() {
+    assertEquals(List.of(annaLuisa, anna), names.search("a", 2));
+  }
+
+  @Test
+  void listsEveryUserOnce() {
+    // both keys of Mia Moser start with "m"
+    UserNameDTO mia = name("Mia", "Moser");
+    names.put(mia);
+
+    assertEquals(List.of(max, anna, mia, jurg), names.search("m", 10));
+  }
+
+  @Test
+  void usersSharingANameAreAllFound() {
+    UserNameDTO otherAnna = name("Anna", "Meier");
+    names.put(otherAnna);
+
+    assertEquals(List.of(anna, otherAnna), names.search("anna meier", 10));
+  }
+
+  @Test
+  void removedUsersAreGone() {
+    names.remove(anna.id());
+
+    assertEquals(List.of(annaLuisa, max), names.search("ann", 10));
+    assertTrue(names.search("meier", 10).isEmpty());
+    assertEquals(3, names.size());
+  }
+
+  @Test
+  void renamedUsersAreOnlyFoundByTheNewName() {
+    UserNameDTO renamed = new UserNameDTO(anna.id(), "Hanna", "Keller");
+    names.put(renamed);
+
+    assertTrue(names.search("meier", 10).isEmpty());
+    assertEquals(List.of(renamed), names.search("kell", 10));
+    assertEquals(4, names.size());
+  }
+
+  private static UserNameDTO name(String firstName, String lastName) {
+    return new UserNameDTO(UUID.randomUUID(), firstName, lastName);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.domain.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Last0 to Last11, sorted by the numeric suffix (Last2 before Last10) rather than by the text
+class UserAdminSearchOrderTest extends AbstractUserApiTest {
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(12);
+  }
+
+  @Test
+  void trailingNumberOfTheLastName() {
+    assertEquals(42, User.trailingNumber("LastName42"));
+    assertEquals(7, User.trailingNumber("O'Neil 007"));
+    assertEquals(0, User.trailingNumber("Smith"));
+    assertEquals(0, User.trailingNumber(null));
+  }
+
+  @Test
+  void searchSortsByTheNumericSuffix() throws Exception {
+    assertEquals(List.of("Last0", "Last1", "Last2", "Last3", "Last4", "Last5", "Last6", "Last7", "Last8", "Last9",
+                         "Last10", "Last11"), lastNames());
+  }
+
+  @Test
+  void renamingMovesTheUser() throws Exception {
+    User user = users.get(11);
+
+    mockMvc.perform(testData.as(user, put("/user/" + user.getId()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"firstName\": \"First11\", \"lastName\": \"Last0\", "
+                                     + "\"email\": \"user11@example.com\"}"))
+           .andExpect(status().isOk());
+
+    // same suffix as user 0, "First0" sorts before "First11"
+    assertEquals(List.of("Last0", "Last0", "Last1"), lastNames().subList(0, 3));
+  }
+
+  private List<String> lastNames() throws Exception {
+    String content = mockMvc.perform(testData.as(users.get(0), get("/user/admin/search")).param("size", "20"))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString();
+    List<String> lastNames = new ArrayList<>();
+    for (JsonNode user : objectMapper.readTree(content).get("content")) {
+      lastNames.add(user.get("lastName").asText());
+    }
+    return lastNames;
+  }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.hashing.BoundedPasswordEncoder;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.user.dto.BatchRegistrationReport;
+import com.example.demo.domain.user.dto.BatchRegistrationReport.Item;
+import com.example.demo.domain.user.dto.UserMapper;
+import com.example.demo.domain.user.dto.UserRegisterDTO;
+import com.example.demo.domain.userProfile.dto.UserProfileDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The emails are free according to the email filter, the database refuses two of them when the chunk is
+// flushed: one was registered in the meantime, the other one violates some other constraint
+class UserBatchRegistrationServiceTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final EntityManager entityManager = mock(EntityManager.class);
+  private final List<User> flushing = new ArrayList<>();
+  private UserBatchRegistrationService service;
+
+  @BeforeEach
+  void setUp() {
+    EmailIndex emailIndex = mock(EmailIndex.class);
+    when(emailIndex.findTaken(anyCollection())).thenReturn(Set.of());
+    UserMapper userMapper = mock(UserMapper.class);
+    when(userMapper.fromUserRegisterDTO(any())).thenAnswer(invocation -> {
+      UserRegisterDTO dto = invocation.getArgument(0);
+      return new User().setEmail(dto.getEmail());
+    });
+    RoleSnapshot roleSnapshot = mock(RoleSnapshot.class);
+    when(roleSnapshot.defaultUserRole()).thenReturn(new Role(RoleSnapshot.USER_ROLE_ID, "USER", Set.of()));
+    BoundedPasswordEncoder passwordEncoder = mock(BoundedPasswordEncoder.class);
+    when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation ->
+        Collections.nCopies(invocation.<List<?>>getArgument(0).size(), "hash"));
+    Validator validator = mock(Validator.class);
+    when(validator.validate(any())).thenReturn(Set.of());
+
+    doAnswer(invocation -> {
+      User user = invocation.getArgument(0);
+      user.setId(UUID.randomUUID());
+      flushing.add(user);
+      return null;
+    }).when(entityManager).persist(any(User.class));
+    doAnswer(invocation -> {
+      boolean refused = flushing.stream()
+                                .map(User::getEmail)
+                                .anyMatch(email -> email.startsWith("taken") || email.startsWith("broken"));
+      flushing.clear();
+      if (refused) {
+        throw new PersistenceException("could not execute batch");
+      }
+      return null;
+    }).when(entityManager).flush();
+    when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+    service = new UserBatchRegistrationServiceImpl(userRepository, emailIndex, userMapper, roleSnapshot,
+        passwordEncoder, validator, entityManager, mock(PlatformTransactionManager.class), 10);
+  }
+
+  @Test
+  void failedChunkIsRetriedAndTakenEmailsAreRecognised() {
+    BatchRegistrationReport report = service.registerAll(List.of(dto("new@example.com"), dto("taken@example.com"),
+        dto("broken@example.com")).iterator());
+
+    assertEquals(1, report.created());
+    assertEquals(2, report.failed());
+    List<Item> items = report.items();
+    assertNull(items.get(0).error());
+    assertEquals("This email address is already in use.", items.get(1).error());
+    assertEquals("Data integrity violation.", items.get(2).error());
+  }
+
+  private static UserRegisterDTO dto(String email) {
+    return new UserRegisterDTO(null, "First", "Last", email, "secret",
+        new UserProfileDTO("Street 1", LocalDate.of(1990, 1, 1), null));
+  }
+}
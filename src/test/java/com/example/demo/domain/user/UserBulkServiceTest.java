@@ -0,0 +1,176 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.RevokedUsers;
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.audit.AuditAction;
+import com.example.demo.domain.audit.AuditLog;
+import com.example.demo.domain.user.dto.BulkDeactivateReport;
+import com.example.demo.domain.user.dto.BulkDeleteReport;
+import com.example.demo.domain.user.dto.BulkReactivateReport;
+import com.example.demo.domain.user.dto.BulkUserRequest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Chunks of two ids, every statement affects its whole chunk
+class UserBulkServiceTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final PrincipalCache principalCache = mock(PrincipalCache.class);
+  private final RevokedUsers revokedUsers = mock(RevokedUsers.class);
+  private final EmailIndex emailIndex = mock(EmailIndex.class);
+  private final NameIndex nameIndex = mock(NameIndex.class);
+  private final UserDirectory userDirectory = mock(UserDirectory.class);
+  private final UserStatistics userStatistics = mock(UserStatistics.class);
+  private final AuditLog auditLog = mock(AuditLog.class);
+  private UserBulkService userBulkService;
+
+  private final UUID caller = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    userBulkService = new UserBulkServiceImpl(userRepository, principalCache, revokedUsers, emailIndex, nameIndex,
+        userDirectory, userStatistics, auditLog, mock(PlatformTransactionManager.class), 2, 10);
+    when(userRepository.deleteProfilesByUserIds(anyCollection())).thenAnswer(invocation -> size(invocation.getArgument(0)));
+    when(userRepository.deleteRoleLinksByUserIds(anyCollection())).thenAnswer(invocation -> size(invocation.getArgument(0)));
+    when(userRepository.deleteAllByIds(anyCollection())).thenAnswer(invocation -> size(invocation.getArgument(0)));
+    when(userRepository.deactivateAllByIds(anyCollection(), any(Instant.class)))
+        .thenAnswer(invocation -> size(invocation.getArgument(0)));
+    when(userRepository.reactivateAllByIds(anyCollection(), any(Instant.class)))
+        .thenAnswer(invocation -> size(invocation.getArgument(0)));
+  }
+
+  @Test
+  void deleteEvictsEveryChunk() {
+    List<UUID> ids = ids(5);
+
+    BulkDeleteReport report = userBulkService.delete(new BulkUserRequest(ids, null), caller);
+
+    assertEquals(new BulkDeleteReport(5, 5, 5, 5), report);
+    List<List<UUID>> chunks = List.of(ids.subList(0, 2), ids.subList(2, 4), ids.subList(4, 5));
+    InOrder order = inOrder(userRepository, principalCache, revokedUsers, nameIndex, userDirectory, emailIndex);
+    for (List<UUID> chunk : chunks) {
+      order.verify(userRepository).deleteAllByIds(chunk);
+      order.verify(principalCache).evictAll(chunk);
+      order.verify(revokedUsers).deleted(chunk);
+      order.verify(nameIndex).removedAll(chunk);
+      order.verify(userDirectory).removedAll(chunk);
+      order.verify(emailIndex).removedAll(chunk.size());
+    }
+    verify(userRepository, times(3)).deleteProfilesByUserIds(anyCollection());
+    verify(userRepository, times(3)).deleteRoleLinksByUserIds(anyCollection());
+    ids.forEach(id -> verify(auditLog).record(AuditAction.DELETED, "User", id));
+    verify(userStatistics).reconcile();
+  }
+
+  @Test
+  void fullChunksLeaveNoEmptyChunk() {
+    List<UUID> ids = ids(4);
+
+    userBulkService.delete(new BulkUserRequest(ids, null), caller);
+
+    verify(userRepository, times(2)).deleteAllByIds(anyCollection());
+    verify(principalCache).evictAll(ids.subList(0, 2));
+    verify(principalCache).evictAll(ids.subList(2, 4));
+    verify(emailIndex, times(2)).removedAll(2);
+  }
+
+  @Test
+  void emailIndexOnlyLearnsAboutDeletedUsers() {
+    // one of the two users is gone already
+    when(userRepository.deleteAllByIds(anyCollection())).thenReturn(1);
+
+    userBulkService.delete(new BulkUserRequest(ids(2), null), caller);
+
+    verify(emailIndex).removedAll(1);
+  }
+
+  @Test
+  void callerIsNeverSelected() {
+    List<UUID> ids = ids(2);
+    List<UUID> selection = new ArrayList<>(ids);
+    selection.add(1, caller);
+    selection.add(ids.get(0));
+
+    BulkDeleteReport report = userBulkService.delete(new BulkUserRequest(selection, null), caller);
+
+    assertEquals(2, report.matched());
+    verify(userRepository).deleteAllByIds(ids);
+  }
+
+  @Test
+  void emptySelectionTouchesNothing() {
+    BulkDeleteReport report = userBulkService.delete(new BulkUserRequest(List.of(caller), null), caller);
+
+    assertEquals(new BulkDeleteReport(0, 0, 0, 0), report);
+    verify(userRepository, never()).deleteAllByIds(anyCollection());
+    verifyNoInteractions(principalCache, revokedUsers, emailIndex, nameIndex, userDirectory, userStatistics);
+  }
+
+  @Test
+  void deactivateAndReactivateEvictTheCachedPrincipals() {
+    List<UUID> ids = ids(3);
+
+    BulkDeactivateReport deactivated = userBulkService.deactivate(new BulkUserRequest(ids, null), caller);
+    BulkReactivateReport reactivated = userBulkService.reactivate(new BulkUserRequest(ids, null), caller);
+
+    assertEquals(new BulkDeactivateReport(3, 3), deactivated);
+    assertEquals(new BulkReactivateReport(3, 3), reactivated);
+    verify(userRepository).deactivateAllByIds(eq(ids.subList(0, 2)), any(Instant.class));
+    verify(userRepository).deactivateAllByIds(eq(ids.subList(2, 3)), any(Instant.class));
+    verify(userRepository).reactivateAllByIds(eq(ids.subList(0, 2)), any(Instant.class));
+    verify(userRepository).reactivateAllByIds(eq(ids.subList(2, 3)), any(Instant.class));
+    verify(principalCache, times(2)).evictAll(ids.subList(0, 2));
+    verify(principalCache, times(2)).evictAll(ids.subList(2, 3));
+    verify(revokedUsers).deactivated(ids.subList(0, 2));
+    verify(revokedUsers).deactivated(ids.subList(2, 3));
+    verify(revokedUsers).reactivated(ids.subList(0, 2));
+    verify(revokedUsers).reactivated(ids.subList(2, 3));
+    ids.forEach(id -> verify(auditLog, times(2)).record(AuditAction.UPDATED, "User", id));
+    // names, emails and birth dates are unchanged
+    verifyNoInteractions(emailIndex, nameIndex, userDirectory, userStatistics);
+  }
+
+  @Test
+  void selectionAboveTheLimitIsRejected() {
+    assertThrows(ResponseStatusException.class,
+        () -> userBulkService.reactivate(new BulkUserRequest(ids(11), null), caller));
+    assertThrows(ResponseStatusException.class,
+        () -> userBulkService.deactivate(new BulkUserRequest(null, null), caller));
+    verify(userRepository, never()).reactivateAllByIds(anyCollection(), any(Instant.class));
+    verify(emailIndex, never()).removedAll(anyLong());
+  }
+
+  private static List<UUID> ids(int count) {
+    List<UUID> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    return ids;
+  }
+
+  private static int size(Collection<?> ids) {
+    return ids.size();
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.domain.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// User 0 is the admin, the bulk requests select the other three in chunks of two. The principal cache and the
+// directory snapshot are on, so a missed eviction keeps a removed user authenticated or listed.
+@TestPropertySource(properties = {"security.principal-cache.enabled=true",
+                                  "users.directory.enabled=true",
+                                  "users.bulk.chunk-size=2"})
+class UserControllerBulkTest extends AbstractUserApiTest {
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private List<User> users;
+  private User admin;
+  private String others;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(4);
+    admin = users.get(0);
+    others = users.subList(1, 4)
+                  .stream()
+                  .map(user -> "\"" + user.getId() + "\"")
+                  .collect(Collectors.joining(", ", "{\"ids\": [", "]}"));
+  }
+
+  @Test
+  void deactivatedUsersAreLockedOutUntilReactivated() throws Exception {
+    User user = users.get(1);
+    // caches the principal
+    readAdminAs(user).andExpect(status().isOk());
+
+    bulk("/user/admin/bulk-deactivate", others)
+        .andExpect(jsonPath("$.matched").value(3))
+        .andExpect(jsonPath("$.deactivated").value(3));
+
+    readAdminAs(user).andExpect(status().is4xxClientError());
+    mockMvc.perform(testData.as(admin, get("/user/" + user.getId())))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.active").value(false));
+
+    bulk("/user/admin/bulk-reactivate", others)
+        .andExpect(jsonPath("$.matched").value(3))
+        .andExpect(jsonPath("$.reactivated").value(3));
+    bulk("/user/admin/bulk-reactivate", others)
+        .andExpect(jsonPath("$.reactivated").value(0));
+
+    readAdminAs(user).andExpect(status().isOk());
+    mockMvc.perform(testData.as(admin, get("/user/" + user.getId())))
+           .andExpect(jsonPath("$.active").value(true));
+  }
+
+  @Test
+  void activeFlagCannotBeWritten() throws Exception {
+    User user = users.get(1);
+
+    mockMvc.perform(testData.as(user, put("/user/" + user.getId()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"firstName\": \"First1\", \"lastName\": \"Last1\", "
+                                     + "\"email\": \"user1@example.com\", \"active\": false}"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.active").value(true));
+  }
+
+  @Test
+  void bulkDeleteEvictsCachesAndIndexes() throws Exception {
+    User user = users.get(1);
+    readAdminAs(user).andExpect(status().isOk());
+    double stale = meterRegistry.get("users.email_filter.stale").gauge().value();
+
+    bulk("/user/admin/bulk-delete", "{\"filter\": {\"lastName\": \"Last\"}}")
+        .andExpect(jsonPath("$.matched").value(3))
+        .andExpect(jsonPath("$.users").value(3))
+        .andExpect(jsonPath("$.profiles").value(3))
+        .andExpect(jsonPath("$.roleLinks").value(3));
+
+    readAdminAs(user).andExpect(status().is4xxClientError());
+    mockMvc.perform(testData.as(admin, get("/user/admin/autocomplete")).param("prefix", "First"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.length()").value(1))
+           .andExpect(jsonPath("$[0].id").value(admin.getId().toString()));
+    // answered from the directory snapshot, whose total would still count the deleted users
+    mockMvc.perform(testData.as(admin, get("/user/admin/search")).param("firstName", "First"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.totalElements").value(1))
+           .andExpect(jsonPath("$.content[0].id").value(admin.getId().toString()));
+    assertEquals(stale + 3, meterRegistry.get("users.email_filter.stale").gauge().value());
+  }
+
+  // Any authenticated user may read another one, so only a stale principal gets through
+  private ResultActions readAdminAs(User user) throws Exception {
+    return mockMvc.perform(testData.as(user, get("/user/" + admin.getId())));
+  }
+
+  private ResultActions bulk(String path, String body) throws Exception {
+    return mockMvc.perform(testData.as(admin, post(path)).contentType(MediaType.APPLICATION_JSON).content(body))
+                  .andExpect(status().isOk());
+  }
+}
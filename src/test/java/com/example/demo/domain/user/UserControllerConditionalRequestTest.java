@@ -0,0 +1,123 @@
+package com.example.demo.domain.user;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETags of the user endpoints, If-None-Match on reads and If-Match on PUT and PATCH
+class UserControllerConditionalRequestTest extends AbstractUserApiTest {
+
+  private static final String OWN_PROFILE = "{\"firstName\": \"First1\", \"lastName\": \"Last1\", "
+      + "\"email\": \"user1@example.com\", \"profile\": {\"address\": \"Other Street\", \"birthDate\": \"1985-05-05\"}}";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    List<User> users = testData.reset(2);
+    user = users.get(1);
+  }
+
+  @Test
+  void unchangedUserIsNotModified() throws Exception {
+    String etag = etag();
+
+    mockMvc.perform(testData.as(user, get("/user/" + user.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+           .andExpect(status().isNotModified());
+    mockMvc.perform(testData.as(user, get("/user/profile")).header(HttpHeaders.IF_NONE_MATCH, etag))
+           .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void patchWithCurrentETagSucceeds() throws Exception {
+    String etag = etag();
+
+    String next = mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                                          .header(HttpHeaders.IF_MATCH, etag)
+                                          .contentType(UserPatchService.MERGE_PATCH_JSON)
+                                          .content("{\"lastName\": \"Patched\"}"))
+                         .andExpect(status().isOk())
+                         .andReturn()
+                         .getResponse()
+                         .getHeader(HttpHeaders.ETAG);
+
+    assertNotEquals(etag, next);
+    assertEquals(next, etag());
+  }
+
+  @Test
+  void patchWithStaleETagFails() throws Exception {
+    String stale = etag();
+    jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id = ?", user.getId());
+
+    mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                            .header(HttpHeaders.IF_MATCH, stale)
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"lastName\": \"Patched\"}"))
+           .andExpect(status().isPreconditionFailed());
+
+    assertEquals("Last1", lastName());
+  }
+
+  @Test
+  void putWithCurrentETagSucceeds() throws Exception {
+    mockMvc.perform(testData.as(user, put("/user/editUser/" + user.getId()))
+                            .header(HttpHeaders.IF_MATCH, etag())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(OWN_PROFILE))
+           .andExpect(status().isOk())
+           .andExpect(header().exists(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void putWithStaleETagFails() throws Exception {
+    String stale = etag();
+    // a profile change alone makes the user's ETag stale
+    jdbcTemplate.update("UPDATE user_profiles SET version = version + 1 WHERE user_id = ?", user.getId());
+
+    mockMvc.perform(testData.as(user, put("/user/editUser/" + user.getId()))
+                            .header(HttpHeaders.IF_MATCH, stale)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(OWN_PROFILE))
+           .andExpect(status().isPreconditionFailed());
+
+    assertEquals("Street 1", jdbcTemplate.queryForObject("SELECT address FROM user_profiles WHERE user_id = ?",
+        String.class, user.getId()));
+  }
+
+  @Test
+  void weakETagNeverMatches() throws Exception {
+    mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                            .header(HttpHeaders.IF_MATCH, "W/" + etag())
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"lastName\": \"Patched\"}"))
+           .andExpect(status().isPreconditionFailed());
+  }
+
+  private String etag() throws Exception {
+    return mockMvc.perform(testData.as(user, get("/user/" + user.getId())))
+                  .andExpect(status().isOk())
+                  .andReturn()
+                  .getResponse()
+                  .getHeader(HttpHeaders.ETAG);
+  }
+
+  private String lastName() {
+    return jdbcTemplate.queryForObject("SELECT last_name FROM users WHERE id = ?", String.class, user.getId());
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.domain.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerExportTest extends AbstractUserApiTest {
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(3);
+  }
+
+  @Test
+  void exportsOneUserPerLine() throws Exception {
+    byte[] body = mockMvc.perform(testData.as(users.get(0), get("/user/export")))
+                         .andExpect(status().isOk())
+                         .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                         .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                         .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                         .andReturn()
+                         .getResponse()
+                         .getContentAsByteArray();
+
+    // the export is unordered
+    Map<String, JsonNode> lines = lines(body).stream()
+                                             .collect(Collectors.toMap(line -> line.get("id").asText(), line -> line));
+    assertEquals(3, lines.size());
+    for (int i = 0; i < users.size(); i++) {
+      JsonNode line = lines.get(users.get(i).getId().toString());
+      assertEquals("user" + i + "@example.com", line.get("email").asText());
+      assertEquals("Street " + i, line.get("profile").get("address").asText());
+      assertFalse(line.has("password"));
+    }
+  }
+
+  @Test
+  void gzipIsUsedWhenAccepted() throws Exception {
+    byte[] body = mockMvc.perform(testData.as(users.get(0), get("/user/export"))
+                                          .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5"))
+                         .andExpect(status().isOk())
+                         .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                         .andReturn()
+                         .getResponse()
+                         .getContentAsByteArray();
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      assertEquals(3, lines(in.readAllBytes()).size());
+    }
+  }
+
+  @Test
+  void gzipIsNotUsedWhenRefused() throws Exception {
+    mockMvc.perform(testData.as(users.get(0), get("/user/export"))
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+           .andExpect(status().isOk())
+           .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  @Test
+  void acceptEncodingHonoursQualityValues() {
+    assertFalse(UserController.acceptsGzip(null));
+    assertFalse(UserController.acceptsGzip("identity"));
+    assertFalse(UserController.acceptsGzip("gzip;q=0"));
+    assertFalse(UserController.acceptsGzip("gzip; q=0.000, br"));
+    assertFalse(UserController.acceptsGzip("*;q=0"));
+    assertFalse(UserController.acceptsGzip("gzip;q=0, *"));
+    assertTrue(UserController.acceptsGzip("gzip"));
+    assertTrue(UserController.acceptsGzip("GZIP;Q=0.1"));
+    assertTrue(UserController.acceptsGzip("br, x-gzip"));
+    assertTrue(UserController.acceptsGzip("*"));
+    assertTrue(UserController.acceptsGzip("gzip;q=0.5, *;q=0"));
+  }
+
+  @Test
+  void incrementalExportIncludesProfileChanges() throws Exception {
+    Instant since = Instant.now();
+    User user = users.get(1);
+    mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"profile\": {\"address\": \"New Street 1\"}}"))
+           .andExpect(status().isOk());
+
+    byte[] body = mockMvc.perform(testData.as(user, get("/user/export"))
+                                          .param("updatedSince", since.toString()))
+                         .andExpect(status().isOk())
+                         .andReturn()
+                         .getResponse()
+                         .getContentAsByteArray();
+
+    List<JsonNode> lines = lines(body);
+    assertEquals(1, lines.size());
+    assertEquals(user.getId().toString(), lines.get(0).get("id").asText());
+    assertEquals("New Street 1", lines.get(0).get("profile").get("address").asText());
+  }
+
+  private List<JsonNode> lines(byte[] body) throws IOException {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isEmpty()) {
+        lines.add(objectMapper.readTree(line));
+      }
+    }
+    return lines;
+  }
+}
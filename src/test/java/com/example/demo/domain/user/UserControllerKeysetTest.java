@@ -0,0 +1,79 @@
+package com.example.demo.domain.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Four users share the numeric last name suffix 0 with Last0, two of them have the same names and one has no
+// first name, so only the full (lastNameNumber, lastName, firstName, id) key orders them
+class UserControllerKeysetTest extends AbstractUserApiTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(6);
+    rename(users.get(1), "Anna");
+    rename(users.get(2), "Anna");
+    rename(users.get(3), null);
+    rename(users.get(4), "Bob");
+    testData.rebuild();
+  }
+
+  @Test
+  void cursorPagesFollowTheOffsetOrder() throws Exception {
+    List<String> offsetOrder = new ArrayList<>();
+    read(mockMvc.perform(testData.as(users.get(0), get("/user/admin/search")).param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString())
+        .get("content").forEach(user -> offsetOrder.add(user.get("id").asText()));
+
+    List<String> cursorOrder = new ArrayList<>();
+    String cursor = "";
+    do {
+      JsonNode page = read(mockMvc.perform(testData.as(users.get(0), get("/user/admin/search"))
+                                               .param("cursor", cursor)
+                                               .param("size", "2"))
+                                  .andExpect(status().isOk())
+                                  .andExpect(jsonPath("$.totalElements").doesNotExist())
+                                  .andReturn().getResponse().getContentAsString());
+      page.get("content").forEach(user -> cursorOrder.add(user.get("id").asText()));
+      cursor = page.hasNonNull("next") ? page.get("next").asText() : null;
+    } while (cursor != null);
+
+    assertEquals(6, offsetOrder.size());
+    assertEquals(offsetOrder, cursorOrder);
+  }
+
+  @Test
+  void totalIsCountedOnRequest() throws Exception {
+    mockMvc.perform(testData.as(users.get(0), get("/user")).param("cursor", "").param("count", "true"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.totalElements").value(6));
+  }
+
+  private void rename(User user, String firstName) {
+    jdbcTemplate.update("UPDATE users SET first_name = ?, last_name = 'Smith', last_name_number = 0 WHERE id = ?",
+        firstName, user.getId());
+  }
+
+  private JsonNode read(String content) throws Exception {
+    return objectMapper.readTree(content);
+  }
+}
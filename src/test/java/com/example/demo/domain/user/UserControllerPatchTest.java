@@ -0,0 +1,76 @@
+package com.example.demo.domain.user;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerPatchTest extends AbstractUserApiTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(3);
+  }
+
+  @Test
+  void ownerPatchChangesOnlyTheSentFields() throws Exception {
+    User user = users.get(1);
+    Map<String, Object> before = row(user);
+
+    mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"firstName\": \"Patched\", \"profile\": {\"address\": \"New Street 1\"}}"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.firstName").value("Patched"))
+           .andExpect(jsonPath("$.lastName").value("Last1"));
+
+    Map<String, Object> after = row(user);
+    assertEquals("Patched", after.get("first_name"));
+    assertEquals("New Street 1", after.get("address"));
+    for (String unchanged : List.of("last_name", "email", "password", "birth_date", "profile_image_url")) {
+      assertEquals(before.get(unchanged), after.get(unchanged), unchanged);
+    }
+  }
+
+  @Test
+  void nullRemovesAField() throws Exception {
+    User user = users.get(1);
+
+    mockMvc.perform(testData.as(user, patch("/user/" + user.getId()))
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"profile\": {\"address\": null}}"))
+           .andExpect(status().isOk());
+
+    Map<String, Object> after = row(user);
+    assertEquals(null, after.get("address"));
+    assertEquals(Date.valueOf(user.getProfile().getBirthDate()), after.get("birth_date"));
+  }
+
+  @Test
+  void othersCantBePatched() throws Exception {
+    mockMvc.perform(testData.as(users.get(0), patch("/user/" + users.get(1).getId()))
+                            .contentType(UserPatchService.MERGE_PATCH_JSON)
+                            .content("{\"firstName\": \"Patched\"}"))
+           .andExpect(status().isForbidden());
+
+    assertEquals("First1", row(users.get(1)).get("first_name"));
+  }
+
+  private Map<String, Object> row(User user) {
+    return jdbcTemplate.queryForMap("SELECT u.first_name, u.last_name, u.email, u.password, p.address, p.birth_date, "
+        + "p.profile_image_url FROM users u JOIN user_profiles p ON p.user_id = u.id WHERE u.id = ?", user.getId());
+  }
+}
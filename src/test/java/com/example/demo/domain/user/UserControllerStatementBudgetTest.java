@@ -0,0 +1,174 @@
+package com.example.demo.domain.user;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static com.example.demo.core.persistence.SqlStatementBudget.atMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement budget of each UserController endpoint, including the lookup of the authenticated user.
+// The principal cache is off so that every request pays for that lookup.
+@TestPropertySource(properties = {"sql.statements.headers=true"})
+class UserControllerStatementBudgetTest extends AbstractUserApiTest {
+
+  private static final int USERS = 60;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(USERS);
+  }
+
+  private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+    return testData.as(user, request);
+  }
+
+  @Test
+  void retrieveById() throws Exception {
+    // version lookup + user with profile and roles
+    mockMvc.perform(as(users.get(0), get("/user/" + users.get(1).getId())))
+           .andExpect(status().isOk())
+           .andExpect(atMost(3));
+  }
+
+  @Test
+  void retrieveAll() throws Exception {
+    mockMvc.perform(as(users.get(0), get("/user")))
+           .andExpect(status().isOk())
+           .andExpect(atMost(2));
+  }
+
+  @Test
+  void retrieveAllByCursor() throws Exception {
+    mockMvc.perform(as(users.get(0), get("/user").param("cursor", "")))
+           .andExpect(status().isOk())
+           .andExpect(atMost(3));
+  }
+
+  @Test
+  void adminSearch() throws Exception {
+    // page + count, independent of the page size
+    mockMvc.perform(as(users.get(0), get("/user/admin/search").param("minAge", "18").param("size", "50")))
+           .andExpect(status().isOk())
+           .andExpect(atMost(3));
+  }
+
+  @Test
+  void ownProfile() throws Exception {
+    mockMvc.perform(as(users.get(0), get("/user/profile")))
+           .andExpect(status().isOk())
+           .andExpect(atMost(3));
+  }
+
+  @Test
+  void emailAvailable() throws Exception {
+    // anonymous, at most the existence check behind the Bloom filter
+    mockMvc.perform(get("/user/email-available").param("email", "user3@example.com"))
+           .andExpect(status().isOk())
+           .andExpect(atMost(1));
+  }
+
+  @Test
+  void deleteById() throws Exception {
+    // select + users_role, profile and user deletes
+    mockMvc.perform(as(users.get(0), delete("/user/" + users.get(1).getId())))
+           .andExpect(status().isNoContent())
+           .andExpect(atMost(5));
+  }
+
+  @Test
+  void deleteOwnProfile() throws Exception {
+    mockMvc.perform(as(users.get(2), delete("/user/me")))
+           .andExpect(status().isNoContent())
+           .andExpect(atMost(5));
+  }
+
+  @Test
+  void updateById() throws Exception {
+    // principal + ownership check (the service finds the user in the same persistence context) + both updates
+    User user = users.get(1);
+    mockMvc.perform(as(user, put("/user/" + user.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Changed\", \"lastName\": \"Last1\", \"email\": \"user1@example.com\", "
+                            + "\"profile\": {\"address\": \"Other Street 1\", \"birthDate\": \"1990-01-01\"}}"))
+           .andExpect(status().isOk())
+           .andExpect(atMost(4));
+  }
+
+  @Test
+  void patchById() throws Exception {
+    User user = users.get(1);
+    mockMvc.perform(as(user, patch("/user/" + user.getId()))
+                        .contentType(UserPatchService.MERGE_PATCH_JSON)
+                        .content("{\"firstName\": \"Changed\", \"profile\": {\"address\": \"Other Street 1\"}}"))
+           .andExpect(status().isOk())
+           .andExpect(atMost(4));
+  }
+
+  @Test
+  void patchOwn() throws Exception {
+    // principal + user + both updates
+    mockMvc.perform(as(users.get(2), patch("/user/me"))
+                        .contentType(UserPatchService.MERGE_PATCH_JSON)
+                        .content("{\"firstName\": \"Changed\", \"profile\": {\"address\": \"Other Street 2\"}}"))
+           .andExpect(status().isOk())
+           .andExpect(atMost(4));
+  }
+
+  @Test
+  void register() throws Exception {
+    // anonymous, at most the existence check behind the Bloom filter + user, profile and role inserts
+    mockMvc.perform(post("/user/register").contentType(MediaType.APPLICATION_JSON)
+                                          .content(registration(0)))
+           .andExpect(status().isCreated())
+           .andExpect(atMost(4));
+  }
+
+  @Test
+  void registerBatch() throws Exception {
+    // principal + per chunk of 50: existing emails + batched user, profile and role inserts
+    String body = IntStream.range(0, 20)
+                           .mapToObj(this::registration)
+                           .collect(Collectors.joining(",", "[", "]"));
+    mockMvc.perform(as(users.get(0), post("/user/register/batch")).contentType(MediaType.APPLICATION_JSON)
+                                                                    .content(body))
+           .andExpect(status().isOk())
+           .andExpect(atMost(5));
+  }
+
+  @Test
+  void registerBatchNdjson() throws Exception {
+    String body = IntStream.range(0, 20)
+                           .mapToObj(this::registration)
+                           .collect(Collectors.joining("\n"));
+    mockMvc.perform(as(users.get(0), post("/user/register/batch")).contentType("application/x-ndjson")
+                                                                    .content(body))
+           .andExpect(status().isOk())
+           .andExpect(atMost(5));
+  }
+
+  @Test
+  void export() throws Exception {
+    // principal + user stream + roles per 50 users + authorities
+    mockMvc.perform(as(users.get(0), get("/user/export")))
+           .andExpect(status().isOk())
+           .andExpect(atMost(5));
+  }
+
+  private String registration(int i) {
+    return "{\"firstName\": \"New\", \"lastName\": \"User" + i + "\", \"email\": \"new" + i + "@example.com\", "
+        + "\"password\": \"secret\", \"profile\": {\"birthDate\": \"1990-01-01\"}}";
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.domain.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With the directory on, GET /user/admin/search is answered from the snapshot, only the page is read from
+// the database
+@TestPropertySource(properties = {"users.directory.enabled=true"})
+class UserDirectorySearchTest extends AbstractUserApiTest {
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(4);
+  }
+
+  @Test
+  void searchIsAnsweredFromTheSnapshot() throws Exception {
+    double before = snapshotSearches();
+
+    mockMvc.perform(testData.as(users.get(0), get("/user/admin/search"))
+                            .param("firstName", "first")
+                            .param("size", "2")
+                            .param("page", "1"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.totalElements").value(4))
+           .andExpect(jsonPath("$.content.length()").value(2))
+           .andExpect(jsonPath("$.content[0].id").value(users.get(2).getId().toString()))
+           .andExpect(jsonPath("$.content[1].id").value(users.get(3).getId().toString()))
+           .andExpect(jsonPath("$.content[1].email").value("user3@example.com"));
+
+    assertEquals(before + 1, snapshotSearches());
+  }
+
+  @Test
+  void deletedUsersLeaveTheSnapshot() throws Exception {
+    User user = users.get(1);
+    mockMvc.perform(testData.as(user, delete("/user/" + user.getId())))
+           .andExpect(status().is2xxSuccessful());
+
+    mockMvc.perform(testData.as(users.get(0), get("/user/admin/search")))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.totalElements").value(3))
+           .andExpect(jsonPath("$.content[1].id").value(users.get(2).getId().toString()));
+  }
+
+  private double snapshotSearches() {
+    return meterRegistry.get("users.directory.searches").tag("source", "snapshot").functionCounter().count();
+  }
+}
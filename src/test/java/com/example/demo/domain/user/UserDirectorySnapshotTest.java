@@ -0,0 +1,153 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.userProfile.UserProfile;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every scan is compared page by page with the database answer of UserSpecifications.adminSearch.
+// The snapshot uses chunks of 16 rows, so pages, chunk boundaries and the parallel count all interleave.
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+class UserDirectorySnapshotTest {
+
+  private static final int USERS = 150;
+  private static final int CHUNK_SIZE = 16;
+  private static final int PAGE_SIZE = 7;
+  private static final Sort ORDER = Sort.by("lastNameNumber", "lastName", "firstName", "id");
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final List<User> users = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    users.clear();
+    for (int i = 0; i < USERS; i++) {
+      // few distinct names, most ties are decided by the id
+      User user = new User().setFirstName("First" + i % 4)
+                            .setLastName("Last" + i % 9)
+                            .setEmail("user" + i + "@example.com")
+                            .setPassword("secret");
+      if (i % 10 != 0) {
+        UserProfile profile = new UserProfile();
+        profile.setBirthDate(LocalDate.of(1950, 1, 1).plusDays(i * 137L));
+        profile.setUser(user);
+        user.setProfile(profile);
+      }
+      users.add(entityManager.persist(user));
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void scansMatchTheDatabase() {
+    UserDirectorySnapshot snapshot = build();
+
+    assertEquals(USERS, snapshot.size());
+    assertSameAsDatabase(snapshot);
+  }
+
+  @Test
+  void patchedSnapshotMatchesTheDatabase() {
+    UserDirectorySnapshot snapshot = build();
+
+    User renamed = entityManager.find(User.class, users.get(3).getId());
+    renamed.setFirstName("First0").setLastName("Last8");
+    User older = entityManager.find(User.class, users.get(5).getId());
+    older.getProfile().setBirthDate(LocalDate.of(1940, 6, 1));
+    User added = entityManager.persist(new User().setFirstName("First2")
+                                                 .setLastName("Last1")
+                                                 .setEmail("added@example.com")
+                                                 .setPassword("secret"));
+    List<UUID> removed = List.of(users.get(0).getId(), users.get(17).getId(), users.get(100).getId());
+    removed.forEach(id -> entityManager.remove(entityManager.find(User.class, id)));
+    entityManager.flush();
+
+    snapshot.upsert(UserDirectoryRow.of(renamed));
+    snapshot.upsert(UserDirectoryRow.of(older));
+    snapshot.upsert(UserDirectoryRow.of(added));
+    removed.forEach(snapshot::remove);
+    entityManager.clear();
+
+    assertEquals(3, snapshot.patches());
+    assertSameAsDatabase(snapshot);
+  }
+
+  @Test
+  void repeatedPatchesOfOneUserKeepOneEntry() {
+    UserDirectorySnapshot snapshot = build();
+    User user = entityManager.find(User.class, users.get(8).getId());
+    for (int i = 0; i < 5; i++) {
+      user.setLastName("Last" + i);
+      entityManager.flush();
+      snapshot.upsert(UserDirectoryRow.of(user));
+    }
+    entityManager.clear();
+
+    assertEquals(1, snapshot.patches());
+    assertSameAsDatabase(snapshot);
+  }
+
+  @Test
+  void pageBehindTheLastMatchIsEmpty() {
+    UserDirectorySnapshot snapshot = build();
+    UserDirectorySnapshot.Query query = UserDirectory.query(null, null, null, "last2", LocalDate.now());
+
+    UserDirectorySnapshot.Result result = snapshot.scan(query, 10_000, PAGE_SIZE);
+
+    assertTrue(result.ids().isEmpty());
+    assertEquals(17, result.total());
+  }
+
+  private UserDirectorySnapshot build() {
+    try (Stream<UserDirectoryRow> rows = userRepository.streamDirectoryRows()) {
+      return UserDirectorySnapshot.build(rows.toList(), System.currentTimeMillis(), CHUNK_SIZE);
+    }
+  }
+
+  private void assertSameAsDatabase(UserDirectorySnapshot snapshot) {
+    assertSameAsDatabase(snapshot, null, null, null, null);
+    assertSameAsDatabase(snapshot, 30, null, null, null);
+    assertSameAsDatabase(snapshot, null, 40, null, null);
+    assertSameAsDatabase(snapshot, 25, 50, null, null);
+    assertSameAsDatabase(snapshot, null, null, "first1", null);
+    assertSameAsDatabase(snapshot, null, null, null, "LAST3");
+    assertSameAsDatabase(snapshot, 20, 60, "First", "last");
+    assertSameAsDatabase(snapshot, null, null, "nobody", null);
+  }
+
+  private void assertSameAsDatabase(UserDirectorySnapshot snapshot, Integer minAge, Integer maxAge, String firstName,
+                                    String lastName) {
+    UserDirectorySnapshot.Query query = UserDirectory.query(minAge, maxAge, firstName, lastName, LocalDate.now());
+    String filter = minAge + "-" + maxAge + " " + firstName + " " + lastName;
+    for (int page = 0; ; page++) {
+      Page<User> expected = userRepository.findAll(UserSpecifications.adminSearch(minAge, maxAge, firstName, lastName),
+                                                   PageRequest.of(page, PAGE_SIZE, ORDER));
+      UserDirectorySnapshot.Result actual = snapshot.scan(query, (long) page * PAGE_SIZE, PAGE_SIZE);
+
+      assertEquals(expected.getTotalElements(), actual.total(), filter);
+      assertEquals(expected.map(User::getId).getContent(), actual.ids(), filter + ", page " + page);
+      if (!expected.hasNext()) {
+        return;
+      }
+    }
+  }
+}
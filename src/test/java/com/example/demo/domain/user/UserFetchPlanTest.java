@@ -0,0 +1,145 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.authority.Authority;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.user.dto.UserSummaryDTO;
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+                           "spring.jpa.properties.hibernate.generate_statistics=true"})
+class UserFetchPlanTest {
+
+  private static final int USERS = 120;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    Authority read = entityManager.persist(new Authority(null, "USER_READ"));
+    Authority modify = entityManager.persist(new Authority(null, "USER_MODIFY"));
+    Role role = entityManager.persist(new Role(null, "USER", new HashSet<>(Set.of(read, modify))));
+    for (int i = 0; i < USERS; i++) {
+      User user = new User().setFirstName("First" + i)
+                            .setLastName("Last" + i)
+                            .setEmail("user" + i + "@example.com")
+                            .setPassword("secret")
+                            .setRoles(new HashSet<>(Set.of(role)));
+      UserProfile profile = new UserProfile();
+      profile.setBirthDate(LocalDate.of(1990, 1, 1).plusDays(i));
+      profile.setUser(user);
+      user.setProfile(profile);
+      entityManager.persist(user);
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void listViewLoadsProfilesInTheMainQuery() {
+    List<User> users = userRepository.findAll();
+
+    assertEquals(USERS, users.size());
+    users.forEach(user -> assertTrue(Hibernate.isInitialized(user.getProfile())));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void listViewTouchingRolesStaysBounded() {
+    Page<User> page = userRepository.findAll(UserSpecifications.adminSearch(18, null, null, null),
+                                             PageRequest.of(0, 100, Sort.by("lastName")));
+
+    page.forEach(user -> user.getRoles().forEach(role -> role.getAuthorities().size()));
+
+    // select + count + batched roles (100 users / batch size 50) + authorities
+    assertTrue(statistics.getPrepareStatementCount() <= 5,
+               "Expected at most 5 statements but got " + statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void authenticationLoadsRolesAndAuthoritiesInOneStatement() {
+    User user = userRepository.findByEmail("user7@example.com").orElseThrow();
+
+    assertTrue(Hibernate.isInitialized(user.getRoles()));
+    user.getRoles().forEach(role -> assertTrue(Hibernate.isInitialized(role.getAuthorities())));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void summariesReadColumnsWithoutEntities() {
+    List<UserSummaryDTO> summaries = userRepository.findAllSummaries(Sort.by("lastNameNumber", "id"));
+    List<UserSummaryDTO> page = userRepository.findSummariesByIds(List.of(summaries.get(5).id(), summaries.get(7).id()));
+
+    assertEquals(USERS, summaries.size());
+    assertEquals(new UserSummaryDTO(summaries.get(0).id(), "First0", "Last0", "user0@example.com",
+                                    LocalDate.of(1990, 1, 1), null), summaries.get(0));
+    assertEquals(2, page.size());
+    assertEquals(0, statistics.getEntityLoadCount());
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void ageFilteredSummariesReuseTheProfileJoin() {
+    CriteriaBuilder cb = entityManager.getEntityManager().getCriteriaBuilder();
+    CriteriaQuery<User> query = cb.createQuery(User.class);
+    Root<User> root = query.from(User.class);
+    root.join("profile", JoinType.LEFT);
+    // user 0 turned 30 on that day, the others later
+    Specification<User> thirty = UserSpecifications.ageBetween(30, null, LocalDate.of(2020, 1, 1));
+
+    thirty.toPredicate(root, query, cb);
+    Page<UserSummaryDTO> summaries = userRepository.findAllSummaries(thirty, PageRequest.of(0, 10));
+
+    assertEquals(1, root.getJoins().size());
+    assertEquals(List.of("user0@example.com"), summaries.map(UserSummaryDTO::email).getContent());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void idLookupLoadsEverythingInOneStatement() {
+    User stored = userRepository.findByEmail("user3@example.com").orElseThrow();
+    entityManager.clear();
+    statistics.clear();
+
+    User user = userRepository.findById(stored.getId()).orElseThrow();
+
+    assertTrue(Hibernate.isInitialized(user.getProfile()));
+    assertTrue(Hibernate.isInitialized(user.getRoles()));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+}
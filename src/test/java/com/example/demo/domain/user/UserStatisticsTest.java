@@ -0,0 +1,94 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.user.dto.UserStatisticsDTO;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every write path moves a user born in the 1980s into another age bracket, after which the counters
+// have to match a recount in the database.
+class UserStatisticsTest extends AbstractUserApiTest {
+
+  private static final String PROFILE = "{\"firstName\": \"First1\", \"lastName\": \"Last1\", "
+      + "\"email\": \"user1@example.com\", \"profile\": {\"address\": \"Street 1\", \"birthDate\": \"2000-01-01\"}}";
+
+  @Autowired
+  private UserStatistics userStatistics;
+
+  private List<User> users;
+
+  @BeforeEach
+  void setUp() {
+    users = testData.reset(3);
+  }
+
+  @Test
+  void putCountsTheNewBirthDate() throws Exception {
+    User user = users.get(1);
+
+    assertCountedAfter(testData.as(user, put("/user/" + user.getId()))
+                               .contentType(MediaType.APPLICATION_JSON)
+                               .content(PROFILE));
+  }
+
+  @Test
+  void patchCountsTheNewBirthDate() throws Exception {
+    User user = users.get(1);
+
+    assertCountedAfter(testData.as(user, patch("/user/" + user.getId()))
+                               .contentType(UserPatchService.MERGE_PATCH_JSON)
+                               .content("{\"profile\": {\"birthDate\": \"2000-01-01\"}}"));
+  }
+
+  @Test
+  void editUserCountsTheNewBirthDate() throws Exception {
+    User user = users.get(1);
+
+    assertCountedAfter(testData.as(user, put("/user/editUser/" + user.getId()))
+                               .contentType(MediaType.APPLICATION_JSON)
+                               .content(PROFILE));
+  }
+
+  @Test
+  void removedBirthDateIsCountedAsMissing() throws Exception {
+    User user = users.get(1);
+
+    assertCountedAfter(testData.as(user, patch("/user/" + user.getId()))
+                               .contentType(UserPatchService.MERGE_PATCH_JSON)
+                               .content("{\"profile\": {\"birthDate\": null}}"));
+    assertEquals(1, userStatistics.statistics(30).withoutBirthDate());
+  }
+
+  @Test
+  void deletionUncountsTheUser() throws Exception {
+    User user = users.get(1);
+
+    assertCountedAfter(testData.as(user, delete("/user/" + user.getId())));
+    assertEquals(2, userStatistics.statistics(30).totalUsers());
+  }
+
+  private void assertCountedAfter(MockHttpServletRequestBuilder request) throws Exception {
+    UserStatisticsDTO before = userStatistics.statistics(30);
+
+    mockMvc.perform(request)
+           .andExpect(status().is2xxSuccessful());
+
+    UserStatisticsDTO counted = userStatistics.statistics(30);
+    userStatistics.reconcile();
+    UserStatisticsDTO recounted = userStatistics.statistics(30);
+    assertNotEquals(before.ageBrackets(), counted.ageBrackets());
+    assertEquals(recounted.totalUsers(), counted.totalUsers());
+    assertEquals(recounted.withoutBirthDate(), counted.withoutBirthDate());
+    assertEquals(recounted.ageBrackets(), counted.ageBrackets());
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.core.security.JwtCodec;
+import com.example.demo.core.security.cache.PrincipalCache;
+import com.example.demo.domain.authority.Authority;
+import com.example.demo.domain.role.Role;
+import com.example.demo.domain.role.RoleSnapshot;
+import com.example.demo.domain.userProfile.UserProfile;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Seeds the users of the Spring Boot tests of the user endpoints. Every user has an ADMIN role with
+// AUTHORITIES, user i is called First<i> Last<i> and was born on 1980-01-01 plus i * 100 days.
+// The USER role that registration assigns exists without authorities. The rows are written behind the back of
+// the in-memory indexes and caches, so reset rebuilds them as the application would at startup.
+@TestComponent
+public class UserTestData {
+
+  public static final List<String> AUTHORITIES = List.of("USER_READ", "USER_CREATE", "USER_MODIFY", "USER_DEACTIVATE",
+      "USER_READ_OWN_PROFILE", "USER_DELETE_OWN_PROFILE");
+
+  private static final List<String> TABLES = List.of("user_profiles", "users_role", "users", "role_authority", "role",
+      "authority");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+  private final JwtCodec jwtCodec;
+  private final EmailIndex emailIndex;
+  private final NameIndex nameIndex;
+  private final UserDirectory userDirectory;
+  private final UserStatistics userStatistics;
+  private final RoleSnapshot roleSnapshot;
+  private final PrincipalCache principalCache;
+
+  public UserTestData(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, EntityManager entityManager,
+                      JwtCodec jwtCodec, EmailIndex emailIndex, NameIndex nameIndex, UserDirectory userDirectory,
+                      UserStatistics userStatistics, RoleSnapshot roleSnapshot, PrincipalCache principalCache) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.entityManager = entityManager;
+    this.jwtCodec = jwtCodec;
+    this.emailIndex = emailIndex;
+    this.nameIndex = nameIndex;
+    this.userDirectory = userDirectory;
+    this.userStatistics = userStatistics;
+    this.roleSnapshot = roleSnapshot;
+    this.principalCache = principalCache;
+  }
+
+  // Replaces all users, roles and authorities
+  public List<User> reset(int count) {
+    TABLES.forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    List<User> users = new ArrayList<>(count);
+    transactionTemplate.executeWithoutResult(status -> {
+      Set<Authority> authorities = new HashSet<>();
+      AUTHORITIES.forEach(name -> {
+        Authority authority = new Authority(null, name);
+        entityManager.persist(authority);
+        authorities.add(authority);
+      });
+      Role role = new Role(null, "ADMIN", authorities);
+      entityManager.persist(role);
+      for (int i = 0; i < count; i++) {
+        User user = new User().setFirstName("First" + i)
+                              .setLastName("Last" + i)
+                              .setEmail("user" + i + "@example.com")
+                              .setPassword("secret")
+                              .setRoles(new HashSet<>(Set.of(role)));
+        UserProfile profile = new UserProfile();
+        profile.setAddress("Street " + i);
+        profile.setBirthDate(LocalDate.of(1980, 1, 1).plusDays(i * 100L));
+        profile.setUser(user);
+        user.setProfile(profile);
+        entityManager.persist(user);
+        users.add(user);
+      }
+    });
+    jdbcTemplate.update("INSERT INTO role (id, name) VALUES (?, 'USER')", RoleSnapshot.USER_ROLE_ID);
+    rebuild();
+    return users;
+  }
+
+  // Also for tests that change rows with JDBC after the reset
+  public void rebuild() {
+    roleSnapshot.refresh();
+    principalCache.evictAll();
+    emailIndex.rebuild();
+    nameIndex.rebuild();
+    userDirectory.rebuild();
+    userStatistics.reconcile();
+  }
+
+  public MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+    return request.header(HttpHeaders.AUTHORIZATION,
+        "Bearer " + jwtCodec.generate(user.getId(), user.getEmail(), AUTHORITIES));
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.domain.user.UserRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static com.example.demo.domain.userProfile.image.ProfileImageStoreTest.channel;
+import static com.example.demo.domain.userProfile.image.ProfileImageStoreTest.png;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProfileImageCollectorTest {
+
+  @TempDir
+  Path directory;
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private ProfileImageStore store;
+  private ProfileImageCollector collector;
+
+  private StoredImage kept;
+  private StoredImage orphan;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    ProfileImageProperties properties = ProfileImageStoreTest.properties(directory, 1024 * 1024);
+    store = new ProfileImageStore(properties);
+    collector = new ProfileImageCollector(store, userRepository, mock(PlatformTransactionManager.class), properties);
+    kept = store.store(channel(png(10, 10)));
+    orphan = store.store(channel(png(20, 10)));
+    Files.write(store.thumbnailPath(kept), png(5, 5));
+    Files.write(store.thumbnailPath(orphan), png(5, 5));
+    when(userRepository.streamProfileImageUrls()).thenAnswer(invocation -> Stream.of(
+        "http://localhost" + ProfileImageService.IMAGES_PATH + kept.fileName(),
+        "https://example.com/avatar.png"));
+  }
+
+  @Test
+  void unreferencedImagesAndThumbnailsAreRemoved() throws IOException {
+    assertEquals(2, collector.collect(Instant.now().plusSeconds(60)));
+
+    assertTrue(Files.exists(kept.path()));
+    assertTrue(Files.exists(store.thumbnailPath(kept)));
+    assertFalse(Files.exists(orphan.path()));
+    assertFalse(Files.exists(store.thumbnailPath(orphan)));
+  }
+
+  @Test
+  void recentFilesAreKept() throws IOException {
+    assertEquals(0, collector.collect(Instant.now().minusSeconds(60)));
+
+    assertTrue(Files.exists(orphan.path()));
+  }
+
+  @Test
+  void abandonedTemporaryFilesAreRemoved() throws IOException {
+    Path uploads = directory.resolve("uploads");
+    Path abandoned = Files.createTempFile(uploads, "upload-", ".tmp");
+    Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minusSeconds(7200)));
+    Path running = Files.createTempFile(uploads, "upload-", ".tmp");
+
+    assertEquals(1, collector.collectTemporary(Instant.now().minusSeconds(3600)));
+
+    assertFalse(Files.exists(abandoned));
+    assertTrue(Files.exists(running));
+    assertTrue(Files.exists(orphan.path()));
+  }
+}
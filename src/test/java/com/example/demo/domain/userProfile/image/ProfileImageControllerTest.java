@@ -0,0 +1,130 @@
+package com.example.demo.domain.userProfile.image;
+
+import com.example.demo.domain.user.AbstractUserApiTest;
+import com.example.demo.domain.user.User;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProfileImageControllerTest extends AbstractUserApiTest {
+
+  @TempDir
+  static Path directory;
+
+  @DynamicPropertySource
+  static void imageDirectory(DynamicPropertyRegistry registry) {
+    registry.add("users.images.directory", directory::toString);
+  }
+
+  @Autowired
+  private ProfileImageStore store;
+
+  private User user;
+
+  private byte[] png;
+  private String fileName;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    user = testData.reset(1).get(0);
+    png = ProfileImageStoreTest.png(64, 48);
+    fileName = store.store(ProfileImageStoreTest.channel(png)).fileName();
+  }
+
+  @Test
+  void uploadStoresTheImage() throws Exception {
+    mockMvc.perform(testData.as(user, put("/user/me/image")).contentType("image/png").content(png))
+           .andExpect(status().isOk())
+           .andExpect(header().exists(HttpHeaders.ETAG))
+           .andExpect(jsonPath("$.profile.profileImageUrl")
+                          .value(endsWith(ProfileImageService.IMAGES_PATH + fileName)));
+  }
+
+  @Test
+  void nonImagesAreRejected() throws Exception {
+    mockMvc.perform(testData.as(user, put("/user/me/image"))
+                            .contentType("image/png")
+                            .content("<html></html>".getBytes(StandardCharsets.UTF_8)))
+           .andExpect(status().isUnsupportedMediaType());
+  }
+
+  @Test
+  void servesTheWholeImage() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName))
+           .andExpect(status().isOk())
+           .andExpect(header().string(HttpHeaders.ETAG, "\"" + fileName + "\""))
+           .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+           .andExpect(content().contentType("image/png"))
+           .andExpect(content().bytes(png));
+  }
+
+  @Test
+  void singleRangeIsPartialContent() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.RANGE, "bytes=2-9"))
+           .andExpect(status().isPartialContent())
+           .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-9/" + png.length))
+           .andExpect(content().bytes(Arrays.copyOfRange(png, 2, 10)));
+  }
+
+  @Test
+  void rangeIsHonouredForTheSameVersionOnly() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.RANGE, "bytes=0-3")
+                                                   .header(HttpHeaders.IF_RANGE, "\"" + fileName + "\""))
+           .andExpect(status().isPartialContent());
+
+    byte[] body = mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.RANGE, "bytes=0-3")
+                                                                 .header(HttpHeaders.IF_RANGE, "\"other.png\""))
+                         .andExpect(status().isOk())
+                         .andReturn()
+                         .getResponse()
+                         .getContentAsByteArray();
+    assertArrayEquals(png, body);
+  }
+
+  @Test
+  void severalRangesGetTheWholeImage() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+           .andExpect(status().isOk())
+           .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+           .andExpect(content().bytes(png));
+  }
+
+  @Test
+  void rangeBehindTheEndIsNotSatisfiable() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+           .andExpect(status().isRequestedRangeNotSatisfiable())
+           .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + png.length));
+  }
+
+  @Test
+  void unchangedImageIsNotModified() throws Exception {
+    mockMvc.perform(get("/user/images/" + fileName).header(HttpHeaders.IF_NONE_MATCH, "\"" + fileName + "\""))
+           .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void missingThumbnailRedirectsToTheOriginal() throws Exception {
+    // stored without an upload, so no thumbnail is scheduled
+    StoredImage image = store.store(ProfileImageStoreTest.channel(ProfileImageStoreTest.png(33, 33)));
+
+    mockMvc.perform(get("/user/images/" + image.thumbnailFileName()))
+           .andExpect(status().isTemporaryRedirect())
+           .andExpect(header().string(HttpHeaders.LOCATION, image.fileName()));
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.domain.userProfile.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfileImageStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private ProfileImageStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new ProfileImageStore(properties(directory, 64 * 1024));
+  }
+
+  @Test
+  void identicalUploadsShareOneFile() throws IOException {
+    byte[] png = png(40, 20);
+
+    StoredImage first = store.store(channel(png));
+    StoredImage second = store.store(channel(png));
+
+    assertEquals(first.path(), second.path());
+    assertEquals(ImageType.PNG, first.type());
+    assertEquals(png.length, first.size());
+    assertEquals(first.hash().substring(0, 2), first.path().getParent().getFileName().toString());
+    assertArrayEquals(png, Files.readAllBytes(first.path()));
+    assertEquals(1, fileCount());
+    assertEquals(0, uploadCount());
+  }
+
+  @Test
+  void differentContentGetsAnotherName() throws IOException {
+    StoredImage small = store.store(channel(png(10, 10)));
+    StoredImage large = store.store(channel(png(20, 10)));
+
+    assertNotEquals(small.fileName(), large.fileName());
+    assertEquals(2, fileCount());
+  }
+
+  @Test
+  void typeIsSniffedFromTheContent() throws IOException {
+    byte[] jpeg = new byte[32];
+    jpeg[0] = (byte) 0xFF;
+    jpeg[1] = (byte) 0xD8;
+    jpeg[2] = (byte) 0xFF;
+
+    assertEquals(ImageType.JPEG, store.store(channel(jpeg)).type());
+    assertThrows(UnsupportedImageTypeException.class,
+        () -> store.store(channel("<svg></svg>".getBytes(StandardCharsets.UTF_8))));
+    assertThrows(UnsupportedImageTypeException.class, () -> store.store(channel(new byte[0])));
+    assertEquals(1, fileCount());
+    assertEquals(0, uploadCount());
+  }
+
+  @Test
+  void largeUploadsAreRejectedWhileStreaming() throws IOException {
+    store = new ProfileImageStore(properties(directory, 100));
+
+    assertThrows(ProfileImageTooLargeException.class, () -> store.store(channel(new byte[101])));
+    assertEquals(0, fileCount());
+    assertEquals(0, uploadCount());
+  }
+
+  @Test
+  void onlyStoreNamesAreResolved() throws IOException {
+    StoredImage image = store.store(channel(png(10, 10)));
+
+    assertEquals(image.path(), store.resolve(image.fileName()).orElseThrow());
+    assertEquals(ImageType.PNG, store.typeOf(image.thumbnailFileName()).orElseThrow());
+    assertEquals(image.fileName(), store.originalOf(image.thumbnailFileName()).orElseThrow());
+    assertTrue(store.resolve(image.hash() + ".jpg").isEmpty());
+    assertTrue(store.resolve("../" + image.fileName()).isEmpty());
+    assertTrue(store.resolve(image.hash().toUpperCase() + ".png").isEmpty());
+    assertTrue(store.typeOf("passwd").isEmpty());
+  }
+
+  static ProfileImageProperties properties(Path directory, long maxBytes) {
+    ProfileImageProperties properties = new ProfileImageProperties();
+    properties.setDirectory(directory.toString());
+    properties.setMaxBytes(maxBytes);
+    return properties;
+  }
+
+  static byte[] png(int width, int height) throws IOException {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    image.setRGB(width / 2, height / 2, 0xFF0000);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+
+  static ReadableByteChannel channel(byte[] content) {
+    return Channels.newChannel(new ByteArrayInputStream(content));
+  }
+
+  private long fileCount() throws IOException {
+    try (Stream<Path> files = store.files()) {
+      return files.count();
+    }
+  }
+
+  private long uploadCount() throws IOException {
+    try (Stream<Path> files = Files.list(directory.resolve("uploads"))) {
+      return files.count();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.domain.userProfile.image;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.example.demo.domain.userProfile.image.ProfileImageStoreTest.channel;
+import static com.example.demo.domain.userProfile.image.ProfileImageStoreTest.png;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// generate() runs on the calling thread here, schedule() only hands it to the pool
+class ThumbnailGeneratorTest {
+
+  @TempDir
+  Path directory;
+
+  private ThumbnailGenerator generator;
+
+  @AfterEach
+  void tearDown() {
+    generator.shutdown();
+  }
+
+  @Test
+  void thumbnailsFitIntoTheSquare() throws IOException {
+    ProfileImageStore store = store(1_000_000);
+    StoredImage image = store.store(channel(png(1000, 500)));
+
+    generator.generate(image);
+
+    BufferedImage thumbnail = ImageIO.read(store.thumbnailPath(image).toFile());
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(32, thumbnail.getHeight());
+  }
+
+  @Test
+  void smallImagesAreNotEnlarged() throws IOException {
+    ProfileImageStore store = store(1_000_000);
+    StoredImage image = store.store(channel(png(30, 20)));
+
+    generator.generate(image);
+
+    BufferedImage thumbnail = ImageIO.read(store.thumbnailPath(image).toFile());
+    assertEquals(30, thumbnail.getWidth());
+    assertEquals(20, thumbnail.getHeight());
+  }
+
+  @Test
+  void imagesOverThePixelLimitGetNoThumbnail() throws IOException {
+    ProfileImageStore store = store(100 * 100);
+    StoredImage image = store.store(channel(png(101, 100)));
+
+    generator.generate(image);
+
+    assertFalse(Files.exists(store.thumbnailPath(image)));
+  }
+
+  private ProfileImageStore store(long maxPixels) {
+    ProfileImageProperties properties = ProfileImageStoreTest.properties(directory, 1024 * 1024);
+    properties.setMaxPixels(maxPixels);
+    properties.setThumbnailSize(64);
+    ProfileImageStore store = new ProfileImageStore(properties);
+    generator = new ThumbnailGenerator(store, properties);
+    return store;
+  }
+}